@@ -0,0 +1,155 @@
+package main.java.game;
+
+import main.java.game.input.VirtualInput;
+import main.java.game.map.TiledMap;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs many independent headless worlds in parallel on a fork-join pool to fuzz the stages.
+ * <p>
+ * All worlds share one read-only {@link StageMaps}; each has its own player, enemies, input and RNG.
+ * Instances alternate between starting on stage 1 and stage 2. Reports ticks/s, deaths, trap hits,
+ * goal reaches, and the longest stretch any instance went without dying or reaching a goal
+ * (with its seed, to replay a possible soft-lock through HeadlessRunner-style scripting).
+ * <p>
+ * Usage: FuzzRunner [instances] [ticksPerInstance] [seed] [options]
+ * options: fixed, rects | tiles, enemies (same as HeadlessRunner)
+ */
+public class FuzzRunner {
+
+    private static final double DT = 1.0 / 60.0;
+
+    /**
+     * Totals for a range of instances (merged up the fork-join tree).
+     */
+    static final class Result {
+        int instances;
+        long ticks;
+        long deaths, trapHits, goals;
+        long maxStall = -1;
+        long maxStallSeed;
+
+        Result merge(Result o) {
+            instances += o.instances;
+            ticks += o.ticks;
+            deaths += o.deaths;
+            trapHits += o.trapHits;
+            goals += o.goals;
+            if (o.maxStall > maxStall) {
+                maxStall = o.maxStall;
+                maxStallSeed = o.maxStallSeed;
+            }
+            return this;
+        }
+    }
+
+    @SuppressWarnings("serial")   // never serialized
+    private static final class Batch extends RecursiveTask<Result> {
+        private final StageMaps maps;
+        private final int from, to;
+        private final long ticks, seed;
+        private final boolean fixed, enemies;
+
+        Batch(StageMaps maps, int from, int to, long ticks, long seed, boolean fixed, boolean enemies) {
+            this.maps = maps;
+            this.from = from;
+            this.to = to;
+            this.ticks = ticks;
+            this.seed = seed;
+            this.fixed = fixed;
+            this.enemies = enemies;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from == 1) return runInstance(from);
+
+            int mid = (from + to) >>> 1;
+            Batch left = new Batch(maps, from, mid, ticks, seed, fixed, enemies);
+            Batch right = new Batch(maps, mid, to, ticks, seed, fixed, enemies);
+            left.fork();
+            Result r = right.compute();
+            return r.merge(left.join());
+        }
+
+        private Result runInstance(int index) {
+            long instanceSeed = seed * 1_000_003L + index;
+
+            World world = new World(maps);
+            world.setFixedPoint(fixed);
+            world.start(index % maps.count());
+            if (enemies) world.spawnEnemies();
+
+            VirtualInput input = new VirtualInput();
+            Random rnd = new Random(instanceSeed);
+
+            long lastEvent = 0, maxStall = 0;
+            int events = 0;
+
+            for (long t = 0; t < ticks; t++) {
+                HeadlessRunner.script(input, rnd, t);
+
+                World.GameState before = world.getState();
+                world.update(input, DT);
+
+                int now = world.getDeaths() + world.getGoalsReached();
+                if (now != events) {
+                    events = now;
+                    maxStall = Math.max(maxStall, t - lastEvent);
+                    lastEvent = t;
+                }
+
+                if (enemies && before != World.GameState.PLAYING && world.getState() == World.GameState.PLAYING) {
+                    world.spawnEnemies();
+                }
+            }
+            maxStall = Math.max(maxStall, ticks - lastEvent);
+
+            Result r = new Result();
+            r.instances = 1;
+            r.ticks = ticks;
+            r.deaths = world.getDeaths();
+            r.trapHits = world.getTrapHits();
+            r.goals = world.getGoalsReached();
+            r.maxStall = maxStall;
+            r.maxStallSeed = instanceSeed;
+            return r;
+        }
+    }
+
+    public static void main(String[] args) {
+        int instances = (args.length > 0) ? Integer.parseInt(args[0]) : 64;
+        long ticks = (args.length > 1) ? Long.parseLong(args[1]) : 100_000L;
+        long seed = (args.length > 2) ? Long.parseLong(args[2]) : 42L;
+
+        boolean fixed = false, enemies = false;
+        TiledMap.CollisionMode mode = null;
+        for (int i = 3; i < args.length; i++) {
+            switch (args[i]) {
+                case "fixed" -> fixed = true;
+                case "enemies" -> enemies = true;
+                case "rects" -> mode = TiledMap.CollisionMode.RECTS;
+                case "tiles" -> mode = TiledMap.CollisionMode.TILES;
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (instances < 1) throw new IllegalArgumentException("instances must be >= 1");
+
+        StageMaps maps = new StageMaps(mode);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        long t0 = System.nanoTime();
+        Result r = pool.invoke(new Batch(maps, 0, instances, ticks, seed, fixed, enemies));
+        double secs = (System.nanoTime() - t0) / 1e9;
+
+        System.out.printf("instances=%d ticks/instance=%d seed=%d fixed=%b mode=%s enemies=%b threads=%d%n",
+                instances, ticks, seed, fixed, mode, enemies, pool.getParallelism());
+        System.out.printf("time=%.3fs total=%d ticks rate=%.0f ticks/s%n", secs, r.ticks, r.ticks / secs);
+        System.out.printf("deaths=%d trapHits=%d goals=%d%n", r.deaths, r.trapHits, r.goals);
+        System.out.printf("longest stretch without death or goal: %d ticks (instance seed %d)%n",
+                r.maxStall, r.maxStallSeed);
+    }
+}
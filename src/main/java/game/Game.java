@@ -5,7 +5,7 @@ import javax.swing.*;
 public class Game {
     public static final int VIRTUAL_WIDTH = 640;
     public static final int VIRTUAL_HEIGHT = 360;
-    public static final int SCALE = 3;
+    public static final int SCALE = 3;   // initial window scale; resizing rescales (see Scaler)
 
     private static JFrame frame;
     private static GamePanel panel;
@@ -14,14 +14,14 @@ public class Game {
         SwingUtilities.invokeLater(() -> {
             frame = new JFrame("Trap-Mania");
             frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
-            frame.setResizable(false);
+            frame.setResizable(true);
 
             panel = new GamePanel(VIRTUAL_WIDTH, VIRTUAL_HEIGHT, SCALE);
             frame.setContentPane(panel);
             frame.pack();
             frame.setLocationRelativeTo(null);
             frame.setVisible(true);
-            panel.requestFocusInWindow();
+            panel.requestInputFocus();
 
             panel.init();
             panel.startLoop();
@@ -3,43 +3,84 @@ package main.java.game;
 import main.java.game.entity.EnemyWarrior;
 import main.java.game.entity.Player;
 import main.java.game.gfx.Camera;
+import main.java.game.gfx.Scaler;
+import main.java.game.gfx.SoftwareRasterizer;
+import main.java.game.gfx.SpriteBatch;
 import main.java.game.input.Input;
-import main.java.game.map.TiledLoader;
 import main.java.game.map.TiledMap;
 import main.java.game.physics.Collider;
+import main.java.game.physics.ColliderQuery;
+import main.java.game.physics.ColliderStore;
 import main.java.game.physics.Rect;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.image.VolatileImage;
 
 public class GamePanel extends JPanel implements Runnable {
 
     // ---- Config / constants ----
-    private static final int TILE_SIZE = 16;
+    // Simulation rate. Movement is swept (see CollisionBackend), so lower rates
+    // or long catch-up runs do not tunnel; EnemyWarrior timers are still tick-based.
+    // With INTERPOLATE, rendering stays smooth below the display rate.
     private static final double TARGET_FPS = 60.0;
     private static final double DT = 1.0 / TARGET_FPS;
     private static final int MAX_CATCHUP_STEPS = 5;
+    private static final double NS_PER_TICK = 1_000_000_000.0 / TARGET_FPS;
 
-    // Stages
-    private int stage = 0;
+    // Draw entities and camera between the last two ticks (by the loop's leftover time) instead of at the
+    // last tick, so motion stays smooth when the render rate differs from TARGET_FPS
+    private static final boolean INTERPOLATE = true;
 
-    private static final String MAP_STAGE_1 = "/main/assets/maps/map0.json";
-    private static final String MAP_STAGE_2 = "/main/assets/maps/map1.json";
+    // Integer subpixel physics for player + enemies (reproducible runs); float physics when false
+    private static final boolean FIXED_POINT_PHYSICS = false;
+
+    // Draw on a separate render thread from published snapshots; update and render alternate on one thread when false
+    private static final boolean RENDER_THREAD = true;
+
+    // Present from the game thread through a Canvas BufferStrategy; repaint()/paintComponent when false
+    private static final boolean ACTIVE_RENDERING = true;
+
+    // How the virtual frame fills the window (whole scales with letterbox bars by default)
+    private static final Scaler.Mode SCALE_MODE = Scaler.Mode.INTEGER;
+
+    // Print average frame draw and scale/present costs every REPORT_EVERY_FRAMES frames
+    private static final boolean REPORT_FRAME_COSTS = false;
+    private static final int REPORT_EVERY_FRAMES = 300;
+
+    // Queue the frame's image draws into a SpriteBatch and submit them sorted by layer and image;
+    // draw each one immediately when false
+    private static final boolean USE_SPRITE_BATCH = true;
+
+    // With the software backbuffer, draw the batch into its pixels on RASTER_THREADS threads (see
+    // SoftwareRasterizer) instead of through Java2D's unaccelerated loops; same pixels either way
+    private static final boolean SOFTWARE_RASTERIZER = true;
+    private static final int RASTER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
 
     // Toggle for drawing colliders / hurtboxes, and printing debug info.
     private static final boolean DEBUG = false;
 
     private static final Color CLEAR_COLOR = new Color(24, 26, 29);
-    private static final Color OVERLAY_COLOR = new Color(0, 0, 0, 180);
-    private static final Font BIG_FONT = new Font("Arial", Font.BOLD, 48);
-    private static final Font SMALL_FONT = new Font("Arial", Font.PLAIN, 18);
+
+    // Debug colors: fill + outline per collider type, indexed by Collider.Type.ordinal()
+    private static final Color DEBUG_PLAYER_COLOR = new Color(0, 255, 255, 200);
+    private static final Color[] DEBUG_FILL = new Color[Collider.Type.values().length];
+    private static final Color[] DEBUG_EDGE = new Color[Collider.Type.values().length];
+
+    static {
+        DEBUG_FILL[Collider.Type.SOLID.ordinal()] = new Color(255, 0, 0, 110);
+        DEBUG_EDGE[Collider.Type.SOLID.ordinal()] = new Color(255, 0, 0, 200);
+        DEBUG_FILL[Collider.Type.ONE_WAY.ordinal()] = new Color(0, 200, 255, 110);
+        DEBUG_EDGE[Collider.Type.ONE_WAY.ordinal()] = new Color(0, 200, 255, 220);
+        DEBUG_FILL[Collider.Type.TRAP.ordinal()] = new Color(255, 255, 0, 110);
+        DEBUG_EDGE[Collider.Type.TRAP.ordinal()] = new Color(255, 255, 0, 220);
+        DEBUG_FILL[Collider.Type.GOAL.ordinal()] = new Color(60, 220, 120, 110);
+        DEBUG_EDGE[Collider.Type.GOAL.ordinal()] = new Color(60, 220, 120, 220);
+    }
 
     private static final String MAP_RESOURCE_PATH = "/main/assets/maps/map0.json";
-    private static final String PLAYER_BASE = "/main/assets/sprites/player/Main_Characters/Virtual_Guy/";
-    private static final String ENEMY_BASE = "/main/assets/sprites/player/Red_Units/Warrior/";
 
     // ---- View ----
     private final int vw;
@@ -47,92 +88,151 @@ public class GamePanel extends JPanel implements Runnable {
 
     // ---- Loop ----
     private Thread loopThread;
+    private Thread renderThread;
     private volatile boolean running;
 
     // ---- State ----
-    private GameState state = GameState.PLAYING;
-
-    private BufferedImage backbuffer;
-    private final Object renderLock = new Object();
+    private final World world = new World(false);
+
+    // Opaque, accelerated where the pipeline allows; its contents can be lost at any time
+    // (mode switch, screen lock, ...), so render() redraws until a frame survives.
+    private VolatileImage backbuffer;
+    // Used instead when the VolatileImage is not accelerated: plain INT_RGB pixels that the
+    // scaler can upscale with array copies (see Scaler)
+    private BufferedImage softBackbuffer;
+    private final Object renderLock = new Object();   // passive mode only: loop vs EDT paint
+
+    // Active mode: the rendering thread draws and flips these itself, nothing is shared with the EDT
+    private final Canvas canvas;
+    private BufferStrategy strategy;
+
+    // Simulation -> renderer hand-off; the loop thread writes, whoever renders reads
+    private TripleBuffer<WorldSnapshot> snapshots;
+
+    // Render-side camera, placed between the snapshot's previous and current camera
+    private final Camera viewCamera;
+    private final HudLayer hud;
+    private final Scaler scaler;
+    private final SpriteBatch batch = new SpriteBatch();   // rendering thread only
+    private SoftwareRasterizer rasterizer;                 // software backbuffer only
+    private boolean settled;   // rendering thread only: current snapshot already drawn at t == 1
+
+    // Frame draw cost (scale cost is tracked by the scaler)
+    private long drawNanos;
+    private int drawSamples;
 
     private Input input;
-    private TiledMap map;
     private Camera camera;
-    private Player player;
-    private final List<EnemyWarrior> enemies = new ArrayList<>();
+    private TiledMap cameraMap;   // map the camera bounds were made for
 
-    public enum GameState {
-        PLAYING,
-        GAME_OVER,
-        WIN
-    }
+    // Debug-only broadphase buffer (colliders around the camera)
+    private final ColliderQuery debugNearby = new ColliderQuery();
 
     public GamePanel(int virtualW, int virtualH, int scale) {
         this.vw = virtualW;
         this.vh = virtualH;
 
         setPreferredSize(new Dimension(vw * scale, vh * scale));
-        setFocusable(true);
+        viewCamera = new Camera(0, 0, vw, vh, vw, vh);
+        hud = new HudLayer(vw, vh);
+        scaler = new Scaler(vw, vh, SCALE_MODE);
+
+        if (ACTIVE_RENDERING) {
+            // Heavyweight canvas fills the panel and takes the keyboard; Swing never paints it
+            canvas = new Canvas();
+            canvas.setIgnoreRepaint(true);
+            canvas.setFocusable(true);
+            setFocusable(false);   // or it would take focus from the canvas, which has the key listener
+            setIgnoreRepaint(true);
+            setLayout(new BorderLayout());
+            add(canvas, BorderLayout.CENTER);
+        } else {
+            canvas = null;
+            setFocusable(true);
+        }
     }
 
     @Override
     public void addNotify() {
         super.addNotify();
-        requestFocusInWindow();
+        inputTarget().requestFocusInWindow();
+    }
+
+    /**
+     * Focuses the component that receives the keyboard (call once the window is showing).
+     */
+    public void requestInputFocus() {
+        inputTarget().requestFocusInWindow();
+    }
+
+    private Component inputTarget() {
+        return (canvas != null) ? canvas : this;
     }
 
     public void init() {
-        backbuffer = new BufferedImage(vw, vh, BufferedImage.TYPE_INT_ARGB);
+        backbuffer = createVolatileImage(vw, vh);
+        if (!backbuffer.getCapabilities().isAccelerated()) {
+            backbuffer.flush();
+            backbuffer = null;
+            softBackbuffer = new BufferedImage(vw, vh, BufferedImage.TYPE_INT_RGB);
+            if (SOFTWARE_RASTERIZER && USE_SPRITE_BATCH) {
+                rasterizer = new SoftwareRasterizer(softBackbuffer, RASTER_THREADS);
+            }
+        }
+        if (canvas != null) strategy = createStrategy(canvas);
 
         input = new Input();
-        addKeyListener(input);
+        inputTarget().addKeyListener(input);
 
+        world.setFixedPoint(FIXED_POINT_PHYSICS);
         try {
-            map = TiledLoader.loadJsonMap(MAP_STAGE_1);
+            world.start();
         } catch (Exception e) {
             throw new RuntimeException("Failed to load map: " + MAP_RESOURCE_PATH, e);
         }
 
-        if (DEBUG && map != null && map.colliders != null) {
-            int solid = 0, oneWay = 0, trap = 0, goal = 0;
-            for (Collider c : map.colliders) {
-                if (c.type == Collider.Type.SOLID) solid++;
-                else if (c.type == Collider.Type.ONE_WAY) oneWay++;
-                else if (c.type == Collider.Type.TRAP) trap++;
-                else if (c.type == Collider.Type.GOAL) goal++;
-            }
-            System.out.println("Colliders => SOLID=" + solid + " ONE_WAY=" + oneWay + " TRAP=" + trap + " GOAL=" + goal);
+        TiledMap map = world.getMap();
+        if (DEBUG && map != null) {
+            System.out.println("Colliders => SOLID=" + map.partition(Collider.Type.SOLID).count
+                    + " ONE_WAY=" + map.partition(Collider.Type.ONE_WAY).count
+                    + " TRAP=" + map.partition(Collider.Type.TRAP).count
+                    + " GOAL=" + map.partition(Collider.Type.GOAL).count);
         }
 
-        loadStage(0);
-
-        spawnPlayerTile(2, 9);
-        // spawnEnemies(); // future implementation
-    }
-
-    // Stage loader
-    private void loadStage(int newStage) {
-        stage = newStage;
+        // world.spawnEnemies(); // future implementation (warrior sprites missing)
 
-        String res = (stage == 0) ? MAP_STAGE_1 : MAP_STAGE_2;
-        map = TiledLoader.loadJsonMap(res);
+        updateCamera();
 
-        camera = new Camera(
-                0, 0,
-                vw, vh,
-                map.getPixelWidth(),
-                map.getPixelHeight()
-        );
+        snapshots = new TripleBuffer<>(() -> new WorldSnapshot(vw, vh));
+        publishSnapshot(0.0);
+    }
 
-        // TODO: upgrade later to PlayerSpawn object; for now keep tiles
-        if (stage == 0) spawnPlayerTile(2, 9);
-        else if (stage == 1) spawnPlayerTile(2, 9);
+    // New camera bounds whenever the world switched maps, then follow the player
+    private void updateCamera() {
+        TiledMap map = world.getMap();
+        Player player = world.getPlayer();
+        if (map == null || player == null) return;
+
+        if (camera == null || cameraMap != map) {
+            camera = new Camera(0, 0, vw, vh, map.getPixelWidth(), map.getPixelHeight());
+            cameraMap = map;
+            world.setActivityView(camera);
+            camera.centerOn(player.x, player.y);
+            camera.savePrevious();   // new map: nothing to interpolate from
+            return;
+        }
+        camera.savePrevious();
+        camera.centerOn(player.x, player.y);
+    }
 
-        // Reset runtime state between stages
-        player.reset();
-        player.clampToWorld(map);
+    // acc: leftover loop accumulator, in ticks
+    private void publishSnapshot(double acc) {
+        WorldSnapshot snap = snapshots.writeSlot();
+        if (!snap.capture(world, camera)) return;
 
-        camera.centerOn(player.x, player.y);
+        snap.tickFraction = (float) acc;
+        snap.capturedAt = System.nanoTime();
+        snapshots.publish();
     }
 
 
@@ -143,6 +243,26 @@ public class GamePanel extends JPanel implements Runnable {
         running = true;
         loopThread = new Thread(this, "game-loop");
         loopThread.start();
+
+        if (RENDER_THREAD) {
+            renderThread = new Thread(this::renderLoop, "game-render");
+            renderThread.start();
+        }
+    }
+
+    // Page flipping when the pipeline offers it, otherwise whatever double buffering AWT picks
+    private static BufferStrategy createStrategy(Canvas target) {
+        BufferCapabilities flipping = new BufferCapabilities(
+                new ImageCapabilities(true),
+                new ImageCapabilities(true),
+                BufferCapabilities.FlipContents.UNDEFINED
+        );
+        try {
+            target.createBufferStrategy(2, flipping);
+        } catch (AWTException e) {
+            target.createBufferStrategy(2);
+        }
+        return target.getBufferStrategy();
     }
 
     // ---- Swing paint ----
@@ -150,16 +270,12 @@ public class GamePanel extends JPanel implements Runnable {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        if (backbuffer == null) return;
-
-        Graphics2D g2 = (Graphics2D) g;
-        g2.setRenderingHint(
-                RenderingHints.KEY_INTERPOLATION,
-                RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR
-        );
+        if (frameImage() == null || strategy != null) return;
 
         synchronized (renderLock) {
-            g2.drawImage(backbuffer, 0, 0, getWidth(), getHeight(), null);
+            // Lost since the last render: skip, the loop redraws it next frame
+            if (frameLost()) return;
+            scaler.present((Graphics2D) g, frameImage(), getWidth(), getHeight());
         }
     }
 
@@ -167,14 +283,12 @@ public class GamePanel extends JPanel implements Runnable {
 
     @Override
     public void run() {
-        final double nsPerUpdate = 1_000_000_000.0 / TARGET_FPS;
-
         long last = System.nanoTime();
         double acc = 0.0;
 
         while (running) {
             long now = System.nanoTime();
-            acc += (now - last) / nsPerUpdate;
+            acc += (now - last) / NS_PER_TICK;
             last = now;
 
             int steps = 0;
@@ -187,8 +301,9 @@ public class GamePanel extends JPanel implements Runnable {
             // Prevent spiral if we are falling behind badly
             if (acc > 2.0) acc = 0.0;
 
-            render();
-            Toolkit.getDefaultToolkit().sync();
+            if (steps > 0) publishSnapshot(acc);
+
+            if (!RENDER_THREAD) renderIfChanged();
 
             // Avoid busy spin (polite CPU usage)
             try {
@@ -198,220 +313,225 @@ public class GamePanel extends JPanel implements Runnable {
         }
     }
 
-    private void update(double dt) {
-        if (player == null || map == null) return;
-
-        if (state == GameState.WIN || state == GameState.GAME_OVER) {
-            if (input.isRestart()) restart();
-            input.endFrame();
-            return;
-        }
+    // Render thread: draws the newest snapshot whenever the simulation published one,
+    // and keeps redrawing the same one at later interpolation points in between
+    private void renderLoop() {
+        while (running) {
+            renderIfChanged();
 
-        // Movement
-        float dx = 0f;
-        final float speed = 120f;
-        if (input.isLeft()) dx -= (float) (speed * dt);
-        if (input.isRight()) dx += (float) (speed * dt);
-
-        // Jump edges
-        boolean jumpPressed = input.isJumpPressed();
-        boolean jumpReleased = input.isJumpReleased();
-        boolean downHeld = input.isDown();
-
-//        player.tick(dt);
-        player.update(map, dx, jumpPressed, jumpReleased, downHeld, (float) dt);
-
-        if (player.isDead()) {
-            state = GameState.GAME_OVER;
-        } else if (player.isLevelComplete()) {
-            if (stage == 0) {
-                loadStage(1);
-            } else {
-                state = GameState.WIN;
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ignored) {
             }
         }
+    }
 
+    // Idles once the current snapshot has been drawn at its final state (t == 1): until the next
+    // publish, every redraw would be the same pixels
+    private void renderIfChanged() {
+        if (settled && !snapshots.hasFresh()) return;
 
-        camera.centerOn(player.x, player.y);
+        WorldSnapshot snap = snapshots.acquire();
+        // t only grows for a given snapshot, so a frame that starts at 1 is drawn at 1
+        settled = !INTERPOLATE || snap == null || snap.interpolation(System.nanoTime(), NS_PER_TICK) >= 1f;
+        render(snap);
+        Toolkit.getDefaultToolkit().sync();
+    }
 
-        input.endFrame();
+    private void update(double dt) {
+        world.update(input, dt);
+        updateCamera();
     }
 
 
-    private void render() {
-        if (backbuffer == null || map == null || camera == null || player == null) return;
+    private void render(WorldSnapshot snap) {
+        if (frameImage() == null || snap == null) return;
 
-        synchronized (renderLock) {
-            Graphics2D g = backbuffer.createGraphics();
-            try {
-                g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        if (strategy != null) {
+            present(snap);
+            return;
+        }
 
-                // Clear
-                g.setColor(CLEAR_COLOR);
-                g.fillRect(0, 0, vw, vh);
+        synchronized (renderLock) {
+            do {
+                if (!validateBackbuffer()) return;
+                drawFrame(snap);
+            } while (frameLost());
+        }
 
-                // Map
-                map.draw(g, camera);
+        repaint();
+        reportFrameCosts();
+    }
 
-                // Enemies (if enabled)
-                /* for (EnemyWarrior e : enemies) {
-                    if (!e.isRemoved()) e.draw(g, camera);
-                }*/
+    // Active mode: draw the frame, scale it into the strategy's back buffer and flip, all on this thread
+    private void present(WorldSnapshot snap) {
+        do {
+            do {
+                if (!validateBackbuffer()) return;
+                drawFrame(snap);
+
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    scaler.present(g, frameImage(), canvas.getWidth(), canvas.getHeight());
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored() || frameLost());
 
-                // Player
-                player.draw(g, camera);
+            strategy.show();
+        } while (strategy.contentsLost());
 
-                // HUD
-                drawHUD(g);
+        reportFrameCosts();
+    }
 
-                // End screens
-                if (state == GameState.GAME_OVER) {
-                    drawCenteredOverlay(g, "GAME OVER", Color.RED);
-                } else if (state == GameState.WIN) {
-                    drawCenteredOverlay(g, "YOU WIN!", new Color(60, 220, 120));
-                }
+    private Image frameImage() {
+        return (softBackbuffer != null) ? softBackbuffer : backbuffer;
+    }
 
-                // Debug overlays
-                if (DEBUG) {
-                    debugDrawPlayerCollider(g, camera);
-                    debugDrawColliders(g, camera);
-                }
+    private boolean frameLost() {
+        return softBackbuffer == null && backbuffer.contentsLost();
+    }
 
-            } finally {
-                g.dispose();
-            }
-        }
+    private void reportFrameCosts() {
+        if (!REPORT_FRAME_COSTS || scaler.samples() < REPORT_EVERY_FRAMES) return;
 
-        repaint();
+        System.out.printf("[FRAME] draw=%.3f ms scale=%.3f ms (x%d, %s)%n",
+                drawNanos / 1e6 / Math.max(1, drawSamples), scaler.averageMillis(), scaler.getScale(),
+                (softBackbuffer != null) ? "software" : "accelerated");
+        drawNanos = 0;
+        drawSamples = 0;
+        scaler.resetStats();
     }
 
-    private void drawHUD(Graphics2D g) {
-        final int hudHeight = 28;
-        final int y = vh - hudHeight;
-
-        // Background bar
-        g.setColor(new Color(0, 0, 0, 170));
-        g.fillRect(0, y, vw, hudHeight);
-
-        // HP text
-        g.setFont(SMALL_FONT);
-        g.setColor(Color.WHITE);
-        g.drawString("HP", 8, y + 18);
-
-        // HP hearts / blocks (no sprite for that yet)
-        int hp = player.getHp();
-        int maxHp = Player.MAX_HP;
-
-        // Stage number
-        g.drawString("Stage " + (stage + 1), vw - 80, vh - 10);
-
-        int barX = 36;
-        int barY = y + 8;
-        int barW = 12;
-        int barH = 12;
-        int gap = 4;
-
-        for (int i = 0; i < maxHp; i++) {
-            if (i < hp) {
-                g.setColor(new Color(220, 60, 60)); // alive
-            } else {
-                g.setColor(new Color(90, 90, 90));  // empty
-            }
-            g.fillRect(barX + i * (barW + gap), barY, barW, barH);
+    // Restores lost contents or recreates the backbuffer for a new device; false when it can't be drawn to
+    private boolean validateBackbuffer() {
+        if (softBackbuffer != null) return true;
+        if (backbuffer.validate(getGraphicsConfiguration()) == VolatileImage.IMAGE_INCOMPATIBLE) {
+            VolatileImage fresh = createVolatileImage(vw, vh);
+            if (fresh == null) return false;   // not displayable (window closing)
+            backbuffer.flush();
+            backbuffer = fresh;
         }
+        return true;
     }
 
+    private void drawFrame(WorldSnapshot snap) {
+        float t = INTERPOLATE ? snap.interpolation(System.nanoTime(), NS_PER_TICK) : 1f;
+        Camera cam = viewCamera;
+        cam.setInterpolated(snap.camera, t);
+
+        long t0 = System.nanoTime();
+
+        // Software path: clear + whole batch straight into the pixels; Java2D only for what it can't draw
+        boolean submitted = false;
+        boolean batchable = USE_SPRITE_BATCH;
+        boolean rasterized = false;
+        if (rasterizer != null) {
+            batchable = submitFrame(snap, cam, t);
+            submitted = true;
+            rasterized = batchable && batch.flush(rasterizer, CLEAR_COLOR.getRGB());
+        }
+        if (rasterized && !DEBUG) {
+            drawNanos += System.nanoTime() - t0;
+            drawSamples++;
+            return;
+        }
 
-    private void drawCenteredOverlay(Graphics2D g, String title, Color titleColor) {
-        g.setColor(OVERLAY_COLOR);
-        g.fillRect(0, 0, vw, vh);
+        Graphics2D g = (softBackbuffer != null) ? softBackbuffer.createGraphics() : backbuffer.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 
-        g.setFont(BIG_FONT);
-        g.setColor(titleColor);
+            // Unless the rasterizer already drew everything but the debug overlays
+            if (!rasterized) {
+                // Clear
+                g.setColor(CLEAR_COLOR);
+                g.fillRect(0, 0, vw, vh);
 
-        // quick centering: approximate; for perfect, use FontMetrics
-        int x = vw / 2 - (title.length() * 14); // cheap estimate
-        int y = vh / 2;
-        g.drawString(title, x, y);
+                if (batchable && !submitted) batchable = submitFrame(snap, cam, t);
+                if (batchable) {
+                    batch.flush(g);
+                } else {
+                    // Map
+                    snap.map.draw(g, cam);
 
-        g.setFont(SMALL_FONT);
-        g.setColor(Color.WHITE);
-        g.drawString("Press R to Restart", vw / 2 - 95, y + 35);
-    }
+                    // Enemies (none captured unless the world spawned them)
+                    for (int i = 0; i < snap.enemyCount(); i++) {
+                        EnemyWarrior.drawPose(g, cam, snap.enemy(i), t);
+                    }
 
-    private void restart() {
-        state = GameState.PLAYING;
-        loadStage(0);
-    }
+                    // Player
+                    Player.drawPose(g, cam, snap.player, t);
 
-    // ---- Spawning helpers ----
+                    // HUD + end screens (cached, redrawn only when hp / stage / state change)
+                    hud.draw(g, snap.hp, snap.stage, snap.state);
+                }
+            }
 
-    private void spawnEnemies() {
-        enemies.clear();
-        spawnEnemyTile(8, 7);
-        spawnEnemyTile(11, 4);
-        spawnEnemyTile(12, 10);
-        spawnEnemyTile(15, 7);
-        spawnEnemyTile(20, 5);
-    }
+            // Debug overlays
+            if (DEBUG) {
+                debugDrawPlayerCollider(g, cam, snap.playerHurtbox);
+                debugDrawColliders(g, cam, snap.map);
+            }
 
-    private void spawnPlayerTile(int tileX, int tileY) {
-        float px = tileX * TILE_SIZE + TILE_SIZE / 2f;
-        float py = tileY * TILE_SIZE + TILE_SIZE / 2f;
-        player = new Player(px, py, PLAYER_BASE);
-        player.clampToWorld(map);
+        } finally {
+            g.dispose();
+        }
+        drawNanos += System.nanoTime() - t0;
+        drawSamples++;
     }
 
-    private void spawnEnemyTile(int tileX, int tileY) {
-        float px = tileX * TILE_SIZE + TILE_SIZE / 2f;
-        float py = tileY * TILE_SIZE + TILE_SIZE / 2f;
-        enemies.add(new EnemyWarrior(px, py, ENEMY_BASE));
+    // Same frame as the immediate path, as batch commands: map layers, then each enemy (sprite + 3 HP bar
+    // layers), player and HUD, each on its own layer(s) so overlapping draws keep their order.
+    // False (batch emptied) if the map can't be batched; the frame is then drawn immediately.
+    private boolean submitFrame(WorldSnapshot snap, Camera cam, float t) {
+        batch.begin();
+
+        int layer = snap.map.submit(batch, cam, 0);
+        if (layer < 0) {
+            batch.begin();
+            return false;
+        }
+
+        // One 4-layer block per enemy, so an enemy's bar never covers a later enemy's sprite. Past the
+        // layer budget (~500 enemies) the rest share the last block and only their bars may overlap wrongly.
+        int lastBlock = Math.max(0, (SpriteBatch.MAX_LAYER - 1 - layer) / 4 - 1);
+        for (int i = 0; i < snap.enemyCount(); i++) {
+            EnemyWarrior.submitPose(batch, cam, snap.enemy(i), t, layer + 4 * Math.min(i, lastBlock));
+        }
+        layer += 4 * Math.min(snap.enemyCount(), lastBlock + 1);
+
+        Player.submitPose(batch, cam, snap.player, t, layer++);
+
+        hud.submit(batch, layer, snap.hp, snap.stage, snap.state);
+        return true;
     }
 
     // ---- Debug drawing ----
 
-    private void debugDrawPlayerCollider(Graphics2D g, Camera cam) {
-        Rect hb = player.getHurtbox();
+    private void debugDrawPlayerCollider(Graphics2D g, Camera cam, Rect hb) {
         int sx = (int) (hb.x - cam.x);
         int sy = (int) (hb.y - cam.y);
-        g.setColor(new Color(0, 255, 255, 200));
+        g.setColor(DEBUG_PLAYER_COLOR);
         g.drawRect(sx, sy, hb.w, hb.h);
     }
 
-    private void debugDrawColliders(Graphics2D g, Camera cam) {
-        if (map.colliders == null) return;
-
-        for (Collider c : map.colliders) {
-            Rect r = c.rect;
-            int sx = (int) (r.x - cam.x);
-            int sy = (int) (r.y - cam.y);
-
-            switch (c.type) {
-                case SOLID -> {
-                    g.setColor(new Color(255, 0, 0, 110));
-                    g.fillRect(sx, sy, r.w, r.h);
-                    g.setColor(new Color(255, 0, 0, 200));
-                    g.drawRect(sx, sy, r.w, r.h);
-                }
-                case ONE_WAY -> {
-                    g.setColor(new Color(0, 200, 255, 110));
-                    g.fillRect(sx, sy, r.w, r.h);
-                    g.setColor(new Color(0, 200, 255, 220));
-                    g.drawRect(sx, sy, r.w, r.h);
-                    g.drawLine(sx, sy, sx + r.w, sy);
-                }
-                case TRAP -> {
-                    g.setColor(new Color(255, 255, 0, 110));
-                    g.fillRect(sx, sy, r.w, r.h);
-                    g.setColor(new Color(255, 255, 0, 220));
-                    g.drawRect(sx, sy, r.w, r.h);
-                }
-                case GOAL -> {
-                    g.setColor(new Color(60, 220, 120, 110));
-                    g.fillRect(sx, sy, r.w, r.h);
-                    g.setColor(new Color(60, 220, 120, 220));
-                    g.drawRect(sx, sy, r.w, r.h);
-                }
+    private void debugDrawColliders(Graphics2D g, Camera cam, TiledMap map) {
+        for (Collider.Type type : Collider.Type.values()) {
+            ColliderStore.Partition part = map.partition(type);
+            part.query(cam.x, cam.y, cam.viewW, cam.viewH, debugNearby);
+
+            for (int i = 0; i < debugNearby.size(); i++) {
+                int c = debugNearby.get(i);
+                int sx = (int) (part.x[c] - cam.x);
+                int sy = (int) (part.y[c] - cam.y);
+                int w = part.w[c];
+                int h = part.h[c];
+
+                g.setColor(DEBUG_FILL[type.ordinal()]);
+                g.fillRect(sx, sy, w, h);
+                g.setColor(DEBUG_EDGE[type.ordinal()]);
+                g.drawRect(sx, sy, w, h);
+                if (type == Collider.Type.ONE_WAY) g.drawLine(sx, sy, sx + w, sy);
             }
         }
     }
@@ -0,0 +1,82 @@
+package main.java.game;
+
+import main.java.game.input.VirtualInput;
+import main.java.game.map.TiledMap;
+
+import java.util.Random;
+
+/**
+ * Steps a headless {@link World} with seeded random inputs and prints a summary.
+ * No display or image decoding needed, so it runs on CI boxes.
+ * <p>
+ * Usage: HeadlessRunner [ticks] [seed] [options]
+ * options: fixed (fixed-point physics), rects | tiles (collision backend), enemies (spawn stage 1 enemies)
+ */
+public class HeadlessRunner {
+
+    private static final double DT = 1.0 / 60.0;
+
+    public static void main(String[] args) {
+        long ticks = (args.length > 0) ? Long.parseLong(args[0]) : 600_000L;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : 42L;
+
+        boolean fixed = false, enemies = false;
+        TiledMap.CollisionMode mode = null;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "fixed" -> fixed = true;
+                case "enemies" -> enemies = true;
+                case "rects" -> mode = TiledMap.CollisionMode.RECTS;
+                case "tiles" -> mode = TiledMap.CollisionMode.TILES;
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        World world = new World(true);
+        world.setFixedPoint(fixed);
+        world.setCollisionMode(mode);
+        world.start();
+        if (enemies) world.spawnEnemies();
+
+        VirtualInput input = new VirtualInput();
+        Random rnd = new Random(seed);
+
+        int deaths = 0, wins = 0;
+        long t0 = System.nanoTime();
+
+        for (long t = 0; t < ticks; t++) {
+            script(input, rnd, t);
+
+            World.GameState before = world.getState();
+            world.update(input, DT);
+            World.GameState after = world.getState();
+
+            if (before == World.GameState.PLAYING && after == World.GameState.GAME_OVER) deaths++;
+            if (before == World.GameState.PLAYING && after == World.GameState.WIN) wins++;
+
+            if (enemies && before != World.GameState.PLAYING && after == World.GameState.PLAYING) {
+                world.spawnEnemies();
+            }
+        }
+
+        double secs = (System.nanoTime() - t0) / 1e9;
+
+        System.out.printf("ticks=%d seed=%d fixed=%b mode=%s enemies=%b%n", ticks, seed, fixed, mode, enemies);
+        System.out.printf("time=%.3fs rate=%.0f ticks/s%n", secs, ticks / secs);
+        System.out.printf("deaths=%d wins=%d final: stage=%d state=%s pos=(%.3f, %.3f) hp=%d%n",
+                deaths, wins, world.getStage() + 1, world.getState(),
+                world.getPlayer().x, world.getPlayer().y, world.getPlayer().getHp());
+    }
+
+    // Wander: hold a direction for a while, tap or hold jump, sometimes drop, restart when over
+    static void script(VirtualInput in, Random rnd, long t) {
+        if (t % 50 == 0) {
+            int dir = rnd.nextInt(3) - 1;
+            in.left = dir < 0;
+            in.right = dir > 0;
+        }
+        if (t % 17 == 0) in.jump = rnd.nextInt(3) == 0;
+        in.down = rnd.nextInt(10) == 0;
+        in.restart = t % 120 == 0;
+    }
+}
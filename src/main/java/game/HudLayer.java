@@ -0,0 +1,150 @@
+package main.java.game;
+
+import main.java.game.entity.Player;
+import main.java.game.gfx.Images;
+import main.java.game.gfx.SpriteBatch;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * HUD bar and GAME_OVER / WIN overlays, pre-rendered into a translucent image that is only redrawn
+ * when hp, stage or game state change. Drawing it is then a single blit per frame.
+ * <p>
+ * Owned by whichever thread renders (see {@link GamePanel}); not thread-safe.
+ */
+class HudLayer {
+
+    private static final int HUD_HEIGHT = 28;
+
+    private static final Color OVERLAY_COLOR = new Color(0, 0, 0, 180);
+    private static final Color WIN_COLOR = new Color(60, 220, 120);
+    private static final Color HUD_BG_COLOR = new Color(0, 0, 0, 170);
+    private static final Color HP_ALIVE_COLOR = new Color(220, 60, 60);
+    private static final Color HP_EMPTY_COLOR = new Color(90, 90, 90);
+
+    private static final Font BIG_FONT = new Font("Arial", Font.BOLD, 48);
+    private static final Font SMALL_FONT = new Font("Arial", Font.PLAIN, 18);
+
+    private final int vw;
+    private final int vh;
+
+    // Bar only while playing; full screen (bar + overlay) on the end screens. Allocated on first use.
+    private BufferedImage barImage;
+    private BufferedImage screenImage;
+
+    // What the current image shows
+    private BufferedImage current;
+    private int cachedHp = -1;
+    private int cachedStage = -1;
+    private World.GameState cachedState;
+
+    HudLayer(int vw, int vh) {
+        this.vw = vw;
+        this.vh = vh;
+    }
+
+    void draw(Graphics2D g, int hp, int stage, World.GameState state) {
+        update(hp, stage, state);
+        g.drawImage(current, 0, currentY(), null);
+    }
+
+    void submit(SpriteBatch batch, int layer, int hp, int stage, World.GameState state) {
+        update(hp, stage, state);
+        batch.draw(current, 0, currentY(), layer);
+    }
+
+    private void update(int hp, int stage, World.GameState state) {
+        if (current == null || hp != cachedHp || stage != cachedStage || state != cachedState) {
+            rebuild(hp, stage, state);
+        }
+    }
+
+    private int currentY() {
+        return (current == barImage) ? vh - HUD_HEIGHT : 0;
+    }
+
+    private void rebuild(int hp, int stage, World.GameState state) {
+        boolean overlay = (state == World.GameState.GAME_OVER || state == World.GameState.WIN);
+
+        if (overlay) {
+            if (screenImage == null) screenImage = Images.createCompatible(vw, vh, Transparency.TRANSLUCENT);
+            current = screenImage;
+        } else {
+            if (barImage == null) barImage = Images.createCompatible(vw, HUD_HEIGHT, Transparency.TRANSLUCENT);
+            current = barImage;
+        }
+
+        Graphics2D g = current.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, current.getWidth(), current.getHeight());
+            g.setComposite(AlphaComposite.SrcOver);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+            // Bar sits at the bottom of whichever image this is
+            drawHUD(g, current.getHeight() - HUD_HEIGHT, hp, stage);
+
+            if (state == World.GameState.GAME_OVER) {
+                drawCenteredOverlay(g, "GAME OVER", Color.RED);
+            } else if (state == World.GameState.WIN) {
+                drawCenteredOverlay(g, "YOU WIN!", WIN_COLOR);
+            }
+        } finally {
+            g.dispose();
+        }
+
+        cachedHp = hp;
+        cachedStage = stage;
+        cachedState = state;
+    }
+
+    private void drawHUD(Graphics2D g, int y, int hp, int stage) {
+        // Background bar
+        g.setColor(HUD_BG_COLOR);
+        g.fillRect(0, y, vw, HUD_HEIGHT);
+
+        // HP text
+        g.setFont(SMALL_FONT);
+        g.setColor(Color.WHITE);
+        g.drawString("HP", 8, y + 18);
+
+        // Stage number
+        g.drawString("Stage " + (stage + 1), vw - 80, y + HUD_HEIGHT - 10);
+
+        // HP hearts / blocks (no sprite for that yet)
+        int maxHp = Player.MAX_HP;
+
+        int barX = 36;
+        int barY = y + 8;
+        int barW = 12;
+        int barH = 12;
+        int gap = 4;
+
+        for (int i = 0; i < maxHp; i++) {
+            if (i < hp) {
+                g.setColor(HP_ALIVE_COLOR);
+            } else {
+                g.setColor(HP_EMPTY_COLOR);
+            }
+            g.fillRect(barX + i * (barW + gap), barY, barW, barH);
+        }
+    }
+
+    private void drawCenteredOverlay(Graphics2D g, String title, Color titleColor) {
+        g.setColor(OVERLAY_COLOR);
+        g.fillRect(0, 0, vw, vh);
+
+        g.setFont(BIG_FONT);
+        g.setColor(titleColor);
+
+        // quick centering: approximate; for perfect, use FontMetrics
+        int x = vw / 2 - (title.length() * 14); // cheap estimate
+        int y = vh / 2;
+        g.drawString(title, x, y);
+
+        g.setFont(SMALL_FONT);
+        g.setColor(Color.WHITE);
+        g.drawString("Press R to Restart", vw / 2 - 95, y + 35);
+    }
+}
@@ -0,0 +1,40 @@
+package main.java.game;
+
+import main.java.game.map.TiledLoader;
+import main.java.game.map.TiledMap;
+
+/**
+ * All stage maps loaded once (headless, no images) for sharing between many {@link World}s.
+ * <p>
+ * Colliders are baked and the collision backend is resolved up front, so after construction
+ * the maps are only ever read: movement and trigger queries keep their scratch state in each
+ * entity's Contact / ColliderQuery, never in the map.
+ */
+public class StageMaps {
+
+    private final TiledMap[] maps = new TiledMap[World.STAGE_COUNT];
+
+    /**
+     * @param mode collision backend for every stage (null = map default)
+     */
+    public StageMaps(TiledMap.CollisionMode mode) {
+        for (int i = 0; i < maps.length; i++) {
+            TiledMap map = TiledLoader.loadJsonMap(World.stageResource(i), false);
+            if (mode != null) map.setCollisionMode(mode);
+
+            // The loader already baked the colliders; resolve the lazy backend too,
+            // while only this thread can see the map
+            map.collision();
+
+            maps[i] = map;
+        }
+    }
+
+    public TiledMap get(int stage) {
+        return maps[stage];
+    }
+
+    public int count() {
+        return maps.length;
+    }
+}
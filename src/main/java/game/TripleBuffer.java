@@ -0,0 +1,64 @@
+package main.java.game;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free single-producer / single-consumer triple buffer.
+ * <p>
+ * The writer fills {@link #writeSlot()} and {@link #publish()}es it; the reader {@link #acquire()}s the
+ * most recently published slot. Each side owns one slot, the third sits in between and is swapped
+ * atomically, so neither side ever waits for the other or sees a half-written slot. Slots are reused:
+ * the writer may overwrite anything the reader has already moved past.
+ */
+public final class TripleBuffer<T> {
+
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;   // set on the middle index when it holds an unread publish
+
+    private final Object[] slots = new Object[3];
+
+    private int back = 0;                                   // writer only
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int front = 2;                                  // reader only
+    private boolean hasFront = false;                       // reader only: anything acquired yet
+
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < slots.length; i++) slots[i] = factory.get();
+    }
+
+    // ---- Writer side ----
+
+    @SuppressWarnings("unchecked")
+    public T writeSlot() {
+        return (T) slots[back];
+    }
+
+    /**
+     * Hands the write slot to the reader and takes back whichever slot it had not picked up yet.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    // ---- Reader side ----
+
+    /**
+     * Latest published slot (the same one again if nothing new arrived), or null before the first publish.
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+            hasFront = true;
+        }
+        return hasFront ? (T) slots[front] : null;
+    }
+
+    /**
+     * True when a publish happened since the last {@link #acquire()}.
+     */
+    public boolean hasFresh() {
+        return (middle.get() & FRESH) != 0;
+    }
+}
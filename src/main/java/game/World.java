@@ -0,0 +1,333 @@
+package main.java.game;
+
+import main.java.game.combat.CombatSystem;
+import main.java.game.entity.EnemyWarrior;
+import main.java.game.entity.Player;
+import main.java.game.gfx.Camera;
+import main.java.game.input.InputSource;
+import main.java.game.map.TiledLoader;
+import main.java.game.map.TiledMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Game simulation without any display: stages, player, enemies, combat and the PLAYING / GAME_OVER / WIN
+ * state machine. {@link GamePanel} drives one of these and draws it; {@link HeadlessRunner} steps it alone.
+ * <p>
+ * A headless world never decodes images (tilesets and sprites are skipped), so it runs on machines with
+ * no display and steps as fast as the physics allows. Worlds built on a {@link StageMaps} share its
+ * read-only maps instead of loading their own, so many can run side by side on different threads.
+ */
+public class World {
+
+    private static final int TILE_SIZE = 16;
+
+    private static final String MAP_STAGE_1 = "/main/assets/maps/map0.json";
+    private static final String MAP_STAGE_2 = "/main/assets/maps/map1.json";
+
+    public static final int STAGE_COUNT = 2;
+
+    private static final String PLAYER_BASE = "/main/assets/sprites/player/Main_Characters/Virtual_Guy/";
+    private static final String ENEMY_BASE = "/main/assets/sprites/player/Red_Units/Warrior/";
+
+    // Player speed in px/sec (input -> intended displacement)
+    private static final float MOVE_SPEED = 120f;
+
+    // Enemy activity by distance outside the activity view (see setActivityView): every tick within
+    // ACTIVE_MARGIN (wide enough that anything in aggro range of the player is covered), every
+    // REDUCED_INTERVAL ticks within REDUCED_MARGIN (simulating the skipped ticks in one step), asleep beyond
+    private static final float ACTIVE_MARGIN = 128f;
+    private static final float REDUCED_MARGIN = 640f;
+    private static final int REDUCED_INTERVAL = 4;
+
+    public enum GameState {
+        PLAYING,
+        GAME_OVER,
+        WIN
+    }
+
+    private final boolean headless;
+    private final StageMaps shared;   // null = load maps per stage
+
+    private int startStage = 0;
+    private int stage = 0;
+    private GameState state = GameState.PLAYING;
+    private long ticks = 0;
+
+    // Run statistics (across restarts)
+    private int deaths = 0;
+    private int trapHits = 0;
+    private int goalsReached = 0;
+
+    private TiledMap map;
+    private Player player;
+    private final List<EnemyWarrior> enemies = new ArrayList<>();
+    private final CombatSystem combat = new CombatSystem();
+
+    // Region enemies are most active around; null = every enemy updates every tick
+    private Camera activityView;
+    private int activeEnemies, reducedEnemies, sleepingEnemies;   // last tick
+
+    // Applied to every stage map and spawned entity (null = map default)
+    private TiledMap.CollisionMode collisionMode = null;
+    private boolean fixedPoint = false;
+
+    public World(boolean headless) {
+        this.headless = headless;
+        this.shared = null;
+    }
+
+    /**
+     * Headless world that plays on already loaded, shared maps (never modifies them).
+     */
+    public World(StageMaps shared) {
+        this.headless = true;
+        this.shared = shared;
+    }
+
+    public static String stageResource(int stage) {
+        return (stage == 0) ? MAP_STAGE_1 : MAP_STAGE_2;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * Integer subpixel physics for everything spawned from now on. Call before {@link #start()}.
+     */
+    public void setFixedPoint(boolean fixedPoint) {
+        this.fixedPoint = fixedPoint;
+    }
+
+    /**
+     * Collision backend for every stage loaded from now on. Call before {@link #start()}.
+     */
+    public void setCollisionMode(TiledMap.CollisionMode mode) {
+        if (shared != null) throw new IllegalStateException("Collision mode of shared maps is set by StageMaps");
+        this.collisionMode = mode;
+        if (map != null) map.setCollisionMode(mode);
+    }
+
+    /**
+     * Camera whose view decides how often each enemy updates (null: all of them every tick, e.g. for
+     * reproducible headless runs). Read at every tick; the world only reads it.
+     */
+    public void setActivityView(Camera view) {
+        this.activityView = view;
+    }
+
+    public void start() {
+        start(0);
+    }
+
+    /**
+     * Starts (and later restarts) on the given stage instead of stage 1.
+     */
+    public void start(int stage) {
+        startStage = stage;
+        state = GameState.PLAYING;
+        loadStage(stage);
+    }
+
+    public void restart() {
+        start(startStage);
+    }
+
+    /**
+     * One simulation tick.
+     */
+    public void update(InputSource input, double dt) {
+        if (player == null || map == null) return;
+
+        ticks++;
+
+        // Start-of-tick positions for render interpolation
+        player.savePrevious();
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).savePrevious();
+        }
+
+        if (state == GameState.WIN || state == GameState.GAME_OVER) {
+            if (input.isRestart()) restart();
+            input.endFrame();
+            return;
+        }
+
+        // Movement
+        float dx = 0f;
+        if (input.isLeft()) dx -= (float) (MOVE_SPEED * dt);
+        if (input.isRight()) dx += (float) (MOVE_SPEED * dt);
+
+        // Jump edges
+        boolean jumpPressed = input.isJumpPressed();
+        boolean jumpReleased = input.isJumpReleased();
+        boolean downHeld = input.isDown();
+
+        int trapsBefore = player.getTrapHits();
+        player.update(map, dx, jumpPressed, jumpReleased, downHeld, (float) dt);
+        trapHits += player.getTrapHits() - trapsBefore;
+
+        updateEnemies(dt);
+
+        // Hitbox vs hurtbox pairs after everyone has moved
+        combat.resolve(player, enemies);
+
+        if (player.isDead()) {
+            state = GameState.GAME_OVER;
+            deaths++;
+        } else if (player.isLevelComplete()) {
+            goalsReached++;
+            if (stage == 0) {
+                loadStage(1);
+            } else {
+                state = GameState.WIN;
+            }
+        }
+
+        input.endFrame();
+    }
+
+    // Enemies near the view every tick, farther ones now and then, the rest not at all
+    private void updateEnemies(double dt) {
+        activeEnemies = reducedEnemies = sleepingEnemies = 0;
+        Camera view = activityView;
+
+        for (int i = 0; i < enemies.size(); i++) {
+            EnemyWarrior e = enemies.get(i);
+            if (e.isRemoved()) continue;
+
+            float d = (view == null) ? 0f : distanceOutside(view, e.x, e.y);
+
+            if (d <= ACTIVE_MARGIN) {
+                // Also catches up ticks deferred while it was in the reduced band
+                e.updateAI(map, player, dt);
+                activeEnemies++;
+            } else if (d <= REDUCED_MARGIN) {
+                // Staggered, so reduced enemies don't all update on the same tick
+                if ((ticks + i) % REDUCED_INTERVAL == 0) e.updateAI(map, player, dt);
+                else e.deferTick();
+                reducedEnemies++;
+            } else {
+                // Frozen: wakes up in the state it fell asleep in
+                e.sleep();
+                sleepingEnemies++;
+            }
+        }
+    }
+
+    // How far (x, y) is outside the view rectangle, along the farther axis; 0 inside
+    private static float distanceOutside(Camera view, float x, float y) {
+        float ox = Math.max(0f, Math.max(view.x - x, x - (view.x + view.viewW)));
+        float oy = Math.max(0f, Math.max(view.y - y, y - (view.y + view.viewH)));
+        return Math.max(ox, oy);
+    }
+
+    // Stage loader
+    private void loadStage(int newStage) {
+        stage = newStage;
+
+        if (shared != null) {
+            map = shared.get(stage);
+        } else {
+            map = TiledLoader.loadJsonMap(stageResource(stage), !headless);
+            if (collisionMode != null) map.setCollisionMode(collisionMode);
+        }
+
+        enemies.clear();
+
+        // TODO: upgrade later to PlayerSpawn object; for now keep tiles
+        if (stage == 0) spawnPlayerTile(2, 9);
+        else if (stage == 1) spawnPlayerTile(2, 9);
+
+        // Reset runtime state between stages
+        player.reset();
+        player.clampToWorld(map);
+        player.savePrevious();
+    }
+
+    // ---- Spawning helpers ----
+
+    /**
+     * Stage 1 enemy layout (not spawned by default: warrior sprites are not in the tree yet,
+     * but a headless world can use it since it never loads them).
+     */
+    public void spawnEnemies() {
+        enemies.clear();
+        spawnEnemyTile(8, 7);
+        spawnEnemyTile(11, 4);
+        spawnEnemyTile(12, 10);
+        spawnEnemyTile(15, 7);
+        spawnEnemyTile(20, 5);
+    }
+
+    private void spawnPlayerTile(int tileX, int tileY) {
+        float px = tileX * TILE_SIZE + TILE_SIZE / 2f;
+        float py = tileY * TILE_SIZE + TILE_SIZE / 2f;
+        player = new Player(px, py, headless ? null : PLAYER_BASE);
+        player.setFixedPoint(fixedPoint);
+        player.clampToWorld(map);
+    }
+
+    public void spawnEnemyTile(int tileX, int tileY) {
+        float px = tileX * TILE_SIZE + TILE_SIZE / 2f;
+        float py = tileY * TILE_SIZE + TILE_SIZE / 2f;
+        EnemyWarrior e = new EnemyWarrior(px, py, headless ? null : ENEMY_BASE);
+        e.setFixedPoint(fixedPoint);
+        enemies.add(e);
+    }
+
+    // ---- Accessors ----
+
+    public TiledMap getMap() {
+        return map;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public List<EnemyWarrior> getEnemies() {
+        return enemies;
+    }
+
+    // Enemies per activity tier on the last tick (removed ones not counted)
+    public int getActiveEnemies() {
+        return activeEnemies;
+    }
+
+    public int getReducedEnemies() {
+        return reducedEnemies;
+    }
+
+    public int getSleepingEnemies() {
+        return sleepingEnemies;
+    }
+
+    public int getStage() {
+        return stage;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    // Ticks stepped since construction (including restarts)
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getDeaths() {
+        return deaths;
+    }
+
+    public int getTrapHits() {
+        return trapHits;
+    }
+
+    // Goal zones reached (stage clears, including the final one)
+    public int getGoalsReached() {
+        return goalsReached;
+    }
+}
@@ -0,0 +1,93 @@
+package main.java.game;
+
+import main.java.game.entity.EnemyWarrior;
+import main.java.game.entity.Player;
+import main.java.game.entity.SpritePose;
+import main.java.game.gfx.Camera;
+import main.java.game.map.TiledMap;
+import main.java.game.physics.Rect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What one rendered frame shows of a {@link World}: map, camera, entity poses and HUD values.
+ * <p>
+ * Filled by the simulation thread at the end of a tick and handed to the render thread through a
+ * {@link TripleBuffer}; once published it is only read until the buffer hands it back for reuse.
+ * Poses are kept across captures, so steady-state capturing allocates nothing.
+ */
+public class WorldSnapshot {
+
+    public TiledMap map;   // read-only after load; only the render thread draws it
+    public final Camera camera;
+
+    public final SpritePose player = new SpritePose();
+    public final Rect playerHurtbox = new Rect();
+
+    private final List<SpritePose> enemies = new ArrayList<>();
+    private int enemyCount;
+
+    // HUD
+    public int hp;
+    public int stage;
+    public World.GameState state = World.GameState.PLAYING;
+
+    // Render interpolation: loop accumulator (in ticks) at capture time, and when it was captured
+    public float tickFraction;
+    public long capturedAt;
+
+    public WorldSnapshot(int viewW, int viewH) {
+        // Only x / y / view size are read when drawing, so the world bounds don't matter
+        this.camera = new Camera(0, 0, viewW, viewH, viewW, viewH);
+    }
+
+    /**
+     * Copies the world's drawable state. False (and nothing copied) until the world has a map and player.
+     */
+    public boolean capture(World world, Camera cam) {
+        TiledMap m = world.getMap();
+        Player p = world.getPlayer();
+        if (m == null || p == null || cam == null) return false;
+
+        map = m;
+        camera.x = cam.x;
+        camera.y = cam.y;
+        camera.prevX = cam.prevX;
+        camera.prevY = cam.prevY;
+
+        p.capturePose(player);
+        p.getHurtbox(playerHurtbox);
+
+        enemyCount = 0;
+        List<EnemyWarrior> list = world.getEnemies();
+        for (int i = 0; i < list.size(); i++) {
+            EnemyWarrior e = list.get(i);
+            if (e.isRemoved()) continue;
+            if (enemyCount == enemies.size()) enemies.add(new SpritePose());
+            e.capturePose(enemies.get(enemyCount++));
+        }
+
+        hp = p.getHp();
+        stage = world.getStage();
+        state = world.getState();
+        return true;
+    }
+
+    /**
+     * Interpolation factor between the captured previous (0) and current (1) state, {@code now} being
+     * System.nanoTime(): the leftover accumulator plus the time since capture, capped at the current state.
+     */
+    public float interpolation(long now, double nsPerTick) {
+        double t = tickFraction + (now - capturedAt) / nsPerTick;
+        return (t >= 1.0) ? 1f : (float) Math.max(0.0, t);
+    }
+
+    public int enemyCount() {
+        return enemyCount;
+    }
+
+    public SpritePose enemy(int i) {
+        return enemies.get(i);
+    }
+}
@@ -0,0 +1,102 @@
+package main.java.game.combat;
+
+import main.java.game.entity.EnemyWarrior;
+import main.java.game.entity.Player;
+import main.java.game.physics.Rect;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pairs attack hitboxes with hurtboxes once per tick and applies the hits.
+ * <p>
+ * Slot layout in the broadphase: player hurtbox first, then one hurtbox + one attack hitbox per enemy,
+ * in list order. Slots are only rebuilt when the enemy count changes. Repeated contact from the same
+ * swing is filtered on the receiving side by attackId.
+ */
+public class CombatSystem implements HitboxBroadphase.PairSink {
+
+    public static final int TEAM_PLAYER = 0;
+    public static final int TEAM_ENEMY = 1;
+
+    // Owner value for slots that belong to the player (enemies use their list index)
+    private static final int OWNER_PLAYER = -1;
+
+    // Unique across all enemies (and worlds), so one swing can never be mistaken for another
+    private static final AtomicInteger NEXT_ATTACK_ID = new AtomicInteger();
+
+    public static int nextAttackId() {
+        return NEXT_ATTACK_ID.incrementAndGet();
+    }
+
+    private final HitboxBroadphase broadphase = new HitboxBroadphase();
+    private final Rect box = new Rect();
+    private int enemySlots = -1;
+
+    // Valid only during resolve()
+    private Player player;
+    private List<EnemyWarrior> enemies;
+
+    public void resolve(Player player, List<EnemyWarrior> enemies) {
+        if (player == null) return;
+
+        this.player = player;
+        this.enemies = enemies;
+
+        if (enemySlots != enemies.size()) rebuildSlots();
+
+        if (player.isDead()) {
+            broadphase.disable(0);
+        } else {
+            player.getHurtbox(box);
+            broadphase.set(0, box.x, box.y, box.w, box.h);
+        }
+
+        for (int i = 0; i < enemies.size(); i++) {
+            EnemyWarrior e = enemies.get(i);
+            int hurt = 1 + i * 2;
+            int hit = hurt + 1;
+
+            // Asleep ones are far outside the view (see World), nowhere near the player
+            if (e.isDead() || e.isRemoved() || e.isAsleep()) {
+                broadphase.disable(hurt);
+                broadphase.disable(hit);
+                continue;
+            }
+
+            e.getHurtbox(box);
+            broadphase.set(hurt, box.x, box.y, box.w, box.h);
+
+            if (e.getAttackHitbox(box)) broadphase.set(hit, box.x, box.y, box.w, box.h);
+            else broadphase.disable(hit);
+        }
+
+        // Index loop above + this sink: no per-tick allocation
+        broadphase.findPairs(this);
+
+        this.player = null;
+        this.enemies = null;
+    }
+
+    @Override
+    public void onPair(int hitSlot, int hurtSlot) {
+        int attacker = broadphase.owner(hitSlot);
+        int target = broadphase.owner(hurtSlot);
+
+        // Only enemies attack for now; the player has no hitbox slot yet
+        if (attacker == OWNER_PLAYER || target != OWNER_PLAYER) return;
+
+        EnemyWarrior e = enemies.get(attacker);
+        player.takeHit(e.getAttackDamage(), e.getAttackId());
+    }
+
+    private void rebuildSlots() {
+        broadphase.clear();
+        broadphase.addSlot(HitboxBroadphase.KIND_HURT, TEAM_PLAYER, OWNER_PLAYER);
+        for (int i = 0; i < enemies.size(); i++) {
+            broadphase.addSlot(HitboxBroadphase.KIND_HURT, TEAM_ENEMY, i);
+            broadphase.addSlot(HitboxBroadphase.KIND_HIT, TEAM_ENEMY, i);
+        }
+        enemySlots = enemies.size();
+    }
+}
@@ -0,0 +1,147 @@
+package main.java.game.combat;
+
+import java.util.Arrays;
+
+/**
+ * Sort-and-sweep broadphase for combat boxes (attack hitboxes vs hurtboxes).
+ * <p>
+ * Boxes live in packed int arrays, one slot per box. Slots are meant to be stable between ticks
+ * (same entity, same slot; a box that is switched off just sets enabled = false), so the x-sorted
+ * order from the previous tick is nearly sorted already and an insertion sort restores it in ~O(n).
+ * Only pairs of a HIT box and a HURT box from different teams are reported.
+ */
+public class HitboxBroadphase {
+
+    public static final int KIND_HIT = 0;
+    public static final int KIND_HURT = 1;
+
+    /**
+     * Receives overlapping (hit, hurt) slot pairs.
+     */
+    public interface PairSink {
+        void onPair(int hitSlot, int hurtSlot);
+    }
+
+    private int count = 0;
+
+    private int[] minX = new int[16], maxX = new int[16];
+    private int[] minY = new int[16], maxY = new int[16];
+    private int[] kind = new int[16], team = new int[16], owner = new int[16];
+    private boolean[] enabled = new boolean[16];
+
+    // Slot indices sorted by minX (kept across ticks)
+    private int[] order = new int[16];
+    private int orderCount = 0;
+
+    // Boxes whose x-interval is still open during the sweep
+    private int[] active = new int[16];
+
+    /**
+     * Drops all slots (use when the set of entities changes).
+     */
+    public void clear() {
+        count = 0;
+        orderCount = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Reserves the next slot. Call in the same entity order every tick to keep slots stable.
+     */
+    public int addSlot(int kind, int team, int owner) {
+        if (count == minX.length) grow();
+        int s = count++;
+        this.kind[s] = kind;
+        this.team[s] = team;
+        this.owner[s] = owner;
+        this.enabled[s] = false;
+        return s;
+    }
+
+    public void set(int slot, int x, int y, int w, int h) {
+        minX[slot] = x;
+        maxX[slot] = x + w;
+        minY[slot] = y;
+        maxY[slot] = y + h;
+        enabled[slot] = w > 0 && h > 0;
+    }
+
+    public void disable(int slot) {
+        enabled[slot] = false;
+    }
+
+    public int owner(int slot) {
+        return owner[slot];
+    }
+
+    public int team(int slot) {
+        return team[slot];
+    }
+
+    /**
+     * Sweeps along x and reports every enabled HIT / HURT overlap between different teams.
+     */
+    public void findPairs(PairSink sink) {
+        if (orderCount != count) {
+            // Slot set changed: start again from slot order, the insertion sort below fixes it
+            for (int i = 0; i < count; i++) order[i] = i;
+            orderCount = count;
+        }
+
+        sortByMinX();
+
+        int activeCount = 0;
+        for (int i = 0; i < orderCount; i++) {
+            int b = order[i];
+            if (!enabled[b]) continue;
+
+            int bx = minX[b];
+
+            // Close intervals that end at or before this box starts, check the rest
+            int kept = 0;
+            for (int j = 0; j < activeCount; j++) {
+                int a = active[j];
+                if (maxX[a] <= bx) continue;
+                active[kept++] = a;
+
+                if (kind[a] == kind[b] || team[a] == team[b]) continue;
+                if (minY[a] >= maxY[b] || minY[b] >= maxY[a]) continue;
+
+                if (kind[a] == KIND_HIT) sink.onPair(a, b);
+                else sink.onPair(b, a);
+            }
+            activeCount = kept;
+            active[activeCount++] = b;
+        }
+    }
+
+    private void sortByMinX() {
+        for (int i = 1; i < orderCount; i++) {
+            int s = order[i];
+            int key = minX[s];
+            int j = i - 1;
+            while (j >= 0 && minX[order[j]] > key) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = s;
+        }
+    }
+
+    private void grow() {
+        int n = minX.length * 2;
+        minX = Arrays.copyOf(minX, n);
+        maxX = Arrays.copyOf(maxX, n);
+        minY = Arrays.copyOf(minY, n);
+        maxY = Arrays.copyOf(maxY, n);
+        kind = Arrays.copyOf(kind, n);
+        team = Arrays.copyOf(team, n);
+        owner = Arrays.copyOf(owner, n);
+        enabled = Arrays.copyOf(enabled, n);
+        order = Arrays.copyOf(order, n);
+        active = Arrays.copyOf(active, n);
+    }
+}
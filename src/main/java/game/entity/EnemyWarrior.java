@@ -1,22 +1,29 @@
 package main.java.game.entity;
 
+import main.java.game.combat.CombatSystem;
 import main.java.game.gfx.Animation;
+import main.java.game.gfx.AssetRegistry;
 import main.java.game.gfx.Camera;
+import main.java.game.gfx.FrameVariants;
+import main.java.game.gfx.SpriteBatch;
 import main.java.game.map.TiledMap;
-import main.java.game.physics.Collider;
+import main.java.game.physics.CollisionBackend;
+import main.java.game.physics.Contact;
+import main.java.game.physics.Fixed;
 import main.java.game.physics.Rect;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.Objects;
 
 public class EnemyWarrior {
 
     private static final boolean DEBUG = true;
     public float x, y;
 
+    // Position at the start of the current tick (render interpolation)
+    public float prevX, prevY;
+
     // Same “feet collider” idea as Player
     private static final int COLLIDER_W = 16;
     private static final int COLLIDER_H = 10;
@@ -34,6 +41,11 @@ public class EnemyWarrior {
     private float kbVx = 0f, kbVy = 0f;
     private int kbTicks = 0;
 
+    // --- Fixed-point mode (optional): position in subpixels, knockback in subpixels/tick ---
+    private boolean fixedPoint = false;
+    private int fx, fy;
+    private int kbFx, kbFy;
+
     private static final int KB_TICKS_ON_HIT = 10;     // short pop
     private static final int KB_TICKS_ON_GUARD = 8;    // slightly shorter
     private static final float KB_SPEED_ON_HIT = 260f;
@@ -47,6 +59,10 @@ public class EnemyWarrior {
     private static final float AGGRO_RANGE = 220f;    // start chasing
     private static final float STOP_RANGE = 44f;     // stop near player
 
+    private static final int SPEED_FX = Fixed.speed(SPEED);
+    private static final long AGGRO_SQ_FX = (long) Fixed.fromPx(AGGRO_RANGE) * Fixed.fromPx(AGGRO_RANGE);
+    private static final long STOP_SQ_FX = (long) Fixed.fromPx(STOP_RANGE) * Fixed.fromPx(STOP_RANGE);
+
     //  i-frames to prevent damage every tick (invuln => invulnerability)
     private int invulnTicks = 0;
     private static final int INVULN_TICKS_ON_HIT = 18; // ~0.3s at 60fps
@@ -69,6 +85,10 @@ public class EnemyWarrior {
     private int attackTicks = 0;
     private int attackDurationTicks = 30;     // will set from animation if you want
     private int attackCooldownTicks = 0;
+    private int attackId = 0;                 // new id per swing, see CombatSystem
+    private static final int ATTACK_DAMAGE = 1;
+    private static final int ATTACK_BOX_W = 54;
+    private static final int ATTACK_BOX_H = 54;
 
     // Tune to make enemy slower than player or to satisfactory delay.
     private static final int ATTACK_COOLDOWN_TICKS = 75; // ~1.25s at 60fps
@@ -87,45 +107,63 @@ public class EnemyWarrior {
 
     private Animation currentAnimation;
 
+    // HP bar + debug colors (shared, never allocated per frame)
+    private static final Color HP_BAR_BG = new Color(0, 0, 0, 160);
+    private static final Color HP_BAR_FILL = new Color(200, 50, 50, 220);
+    private static final Color HP_BAR_BORDER = new Color(255, 255, 255, 200);
+
+    // Same colors as 1x1 images for batched drawing (created on first batched draw)
+    private static BufferedImage hpBarBgSwatch, hpBarFillSwatch, hpBarBorderSwatch;
+    private static final Color DEBUG_COLLIDER_COLOR = new Color(0, 255, 255, 120);
+    private static final Color DEBUG_HITBOX_COLOR = new Color(255, 0, 0, 150);
+
+    // Scratch output for debug hitbox draws
+    private final Rect debugRect = new Rect();
+
+    // Scratch pose for draw()
+    private final SpritePose drawPose = new SpritePose();
+
+    // Ticks skipped at a reduced update rate, caught up by the next updateAI(); asleep = not simulated
+    // at all (see World)
+    private int deferredTicks = 0;
+    private boolean asleep = false;
+
 
     // Base folder where the RED warrior sprites live
     // "/main/resources/sprites/player/Red_Units/Warrior/"
     private final String spriteBasePath;
 
+    // Reused collision buffer
+    private final Contact contact = new Contact();
+
+    /**
+     * @param spriteBasePath sprite folder, or null for a headless enemy (no images decoded, draw() is a no-op)
+     */
     public EnemyWarrior(float x, float y, String spriteBasePath) {
         this.x = x;
         this.y = y;
-        this.spriteBasePath = spriteBasePath.endsWith("/") ? spriteBasePath : (spriteBasePath + "/");
-        initAnimations();
+        savePrevious();
+        if (spriteBasePath == null) {
+            this.spriteBasePath = null;
+        } else {
+            this.spriteBasePath = spriteBasePath.endsWith("/") ? spriteBasePath : (spriteBasePath + "/");
+            initAnimations();
+        }
     }
 
     private void initAnimations() {
         try {
-            BufferedImage idleSheet = ImageIO.read(Objects.requireNonNull(
-                    getClass().getResource(spriteBasePath + "Warrior_Idle.png"),
-                    "Missing enemy idle sprite sheet: " + spriteBasePath + "Warrior_Idle.png"
-            ));
-
-            BufferedImage runSheet = ImageIO.read(Objects.requireNonNull(
-                    getClass().getResource(spriteBasePath + "Warrior_Run.png"),
-                    "Missing enemy run sprite sheet: " + spriteBasePath + "Warrior_Run.png"
-            ));
-
             int frameWidth = 192;
             int frameHeight = 192;
 
             int idleFramesCount = 8;
             int runFramesCount = 6;
 
-            BufferedImage[] idleFrames = new BufferedImage[idleFramesCount];
-            for (int i = 0; i < idleFramesCount; i++) {
-                idleFrames[i] = idleSheet.getSubimage(i * frameWidth, 0, frameWidth, frameHeight);
-            }
-
-            BufferedImage[] runFrames = new BufferedImage[runFramesCount];
-            for (int i = 0; i < runFramesCount; i++) {
-                runFrames[i] = runSheet.getSubimage(i * frameWidth, 0, frameWidth, frameHeight);
-            }
+            // Shared with every other warrior (decoded once per process, see AssetRegistry)
+            BufferedImage[] idleFrames = AssetRegistry.strip(spriteBasePath + "Warrior_Idle.png",
+                    idleFramesCount, frameWidth, frameHeight);
+            BufferedImage[] runFrames = AssetRegistry.strip(spriteBasePath + "Warrior_Run.png",
+                    runFramesCount, frameWidth, frameHeight);
 
             // Reuse same frames for all directions for now
             idleDownAnim = new Animation(idleFrames, 8);
@@ -151,17 +189,7 @@ public class EnemyWarrior {
 
     private Animation loadAnimation(String path, int frameCount, int frameDelay) {
         try {
-            BufferedImage sheet = ImageIO.read(Objects.requireNonNull(
-                    getClass().getResource(path)
-            ));
-            int frameWidth = sheet.getWidth() / frameCount;
-            int frameHeight = sheet.getHeight();
-
-            BufferedImage[] frames = new BufferedImage[frameCount];
-            for (int i = 0; i < frameCount; i++) {
-                frames[i] = sheet.getSubimage(i * frameWidth, 0, frameWidth, frameHeight);
-            }
-            return new Animation(frames, frameDelay);
+            return new Animation(AssetRegistry.strip(path, frameCount), frameDelay);
         } catch (IOException e) {
             e.printStackTrace();
             // Fallback: 1x1 dummy frame to avoid crashes
@@ -174,6 +202,16 @@ public class EnemyWarrior {
         }
     }
 
+    /**
+     * Switches to integer subpixel movement (bit-for-bit reproducible), see Player.setFixedPoint.
+     * Timers here are already tick counts; in this mode updateAI() ignores dt.
+     */
+    public void setFixedPoint(boolean fixedPoint) {
+        this.fixedPoint = fixedPoint;
+        fx = Fixed.fromPx(x);
+        fy = Fixed.fromPx(y);
+    }
+
     // --- collider helpers (same idea as Player) ---
     public float getColX() {
         return x - COLLIDER_W / 2f;
@@ -184,66 +222,118 @@ public class EnemyWarrior {
     }
 
     // --- Movement with collision (axis-by-axis resolution) ---
+    // Walls are SOLID and ONE_WAY colliders (no gravity here, so one-way acts like a wall).
     public void move(TiledMap map, float dx, float dy) {
+        CollisionBackend world = map.collision();
+
         if (dx != 0f) {
-            float newX = x + dx;
-            float colX = newX - COLLIDER_W / 2f;
-            float colY = getColY();
-
-            for (Collider c : map.colliders) {
-                if (c.rect.intersects(colX, colY, COLLIDER_W, COLLIDER_H)) {
-                    if (dx > 0) newX = c.rect.x - COLLIDER_W / 2f;
-                    else newX = c.rect.x + c.rect.w + COLLIDER_W / 2f;
-                    colX = newX - COLLIDER_W / 2f;
-                }
-            }
-            x = newX;
+            x = world.moveX(x, x + dx, -COLLIDER_W / 2f, getColY(), COLLIDER_W, COLLIDER_H, true, contact);
         }
 
         if (dy != 0f) {
-            float newY = y + dy;
-            float colX = getColX();
-            float colY = newY + FOOT_OFFSET_Y - COLLIDER_H;
-
-            for (Collider c : map.colliders) {
-                if (c.rect.intersects(colX, colY, COLLIDER_W, COLLIDER_H)) {
-                    if (dy > 0) newY = c.rect.y - FOOT_OFFSET_Y;
-                    else newY = c.rect.y + c.rect.h - FOOT_OFFSET_Y + COLLIDER_H;
-                    colY = newY + FOOT_OFFSET_Y - COLLIDER_H;
-                }
-            }
-            y = newY;
+            y = world.moveY(getColX(), y, y + dy, FOOT_OFFSET_Y - COLLIDER_H, COLLIDER_W, COLLIDER_H,
+                    true, false, 0f, contact);
+        }
+    }
+
+    // move() on the subpixel position; backend inputs and results are exact in float
+    private void moveFixed(TiledMap map, int dx, int dy) {
+        CollisionBackend world = map.collision();
+
+        if (dx != 0) {
+            fx = Fixed.fromPx(world.moveX(Fixed.toPx(fx), Fixed.toPx(fx + dx), -COLLIDER_W / 2f,
+                    Fixed.toPx(fy) + FOOT_OFFSET_Y - COLLIDER_H, COLLIDER_W, COLLIDER_H, true, contact));
+        }
+
+        if (dy != 0) {
+            fy = Fixed.fromPx(world.moveY(Fixed.toPx(fx) - COLLIDER_W / 2f, Fixed.toPx(fy), Fixed.toPx(fy + dy),
+                    FOOT_OFFSET_Y - COLLIDER_H, COLLIDER_W, COLLIDER_H, true, false, 0f, contact));
         }
+
+        x = Fixed.toPx(fx);
+        y = Fixed.toPx(fy);
+    }
+
+    // Marks the current position as the start of the next tick (see Player#savePrevious)
+    public void savePrevious() {
+        prevX = x;
+        prevY = y;
+    }
+
+    /**
+     * Skips this tick; the next updateAI() simulates it too.
+     */
+    public void deferTick() {
+        deferredTicks++;
+        asleep = false;
+    }
+
+    /**
+     * Stops simulating (and forgets skipped ticks) until the next updateAI() or deferTick():
+     * it then resumes exactly where it stopped. Asleep enemies take no part in combat.
+     */
+    public void sleep() {
+        deferredTicks = 0;
+        asleep = true;
+    }
+
+    public boolean isAsleep() {
+        return asleep;
     }
 
     // --- AI update: chase player in range, idle otherwise ---
     // TODO: implement AI for attack and guard bases on current state and predictability player next move.
     public void updateAI(TiledMap map, Player player, double dt) {
+        int n = 1 + deferredTicks;
+        deferredTicks = 0;
+        asleep = false;
+        updateAI(map, player, dt, n);
+    }
+
+    // n ticks in one step: timers advance by n, movement covers n ticks' distance (one swept move).
+    // n = 1 is the regular per-tick update.
+    private void updateAI(TiledMap map, Player player, double dt, int n) {
         if (removed) return;
 
-        if (invulnTicks > 0) invulnTicks--;
+        invulnTicks = Math.max(0, invulnTicks - n);
 
-        // Knockback takes priority over AI/movement
-        if (kbTicks > 0) {
-            float dx = kbVx * (float) dt;
-            float dy = kbVy * (float) dt;
+        // Pick up positions set from outside (spawn, editor, tests)
+        if (fixedPoint) {
+            if (x != Fixed.toPx(fx)) fx = Fixed.fromPx(x);
+            if (y != Fixed.toPx(fy)) fy = Fixed.fromPx(y);
+        }
+
+        // Knockback takes priority over AI/movement; ticks of a catch-up step left after it ends
+        // go through the regular update below
+        if (kbTicks > 0 && fixedPoint) {
+            int k = Math.min(n, kbTicks);
+            moveFixed(map, kbFx * k, kbFy * k);
+            kbTicks -= k;
+            updateAnimation(Fixed.toPx(kbFx), Fixed.toPx(kbFy), k);
+            n -= k;
+            if (n == 0) return;
+        } else if (kbTicks > 0) {
+            int k = Math.min(n, kbTicks);
+            float dx = kbVx * (float) dt * k;
+            float dy = kbVy * (float) dt * k;
 
             move(map, dx, dy);
 
-            kbTicks--;
+            kbTicks -= k;
 
             // Show idle or run while sliding
-            updateAnimation(dx, dy); // uses dt-based movement direction
-            return;
+            updateAnimation(dx, dy, k); // uses dt-based movement direction
+            n -= k;
+            if (n == 0) return;
         }
 
 
         // Set tick cooldown for attacks.
-        if (attackCooldownTicks > 0) attackCooldownTicks--;
+        attackCooldownTicks = Math.max(0, attackCooldownTicks - n);
 
         // If dead, just fade out (no movement)
         if (dead) {
-            fadeTicks++;
+            fadeTicks += n;
             if (fadeTicks >= FADE_DURATION_TICKS) {
                 removed = true;
             }
@@ -265,6 +355,16 @@ public class EnemyWarrior {
         boolean inAggro = distSq <= aggroSq;
         boolean inStop = distSq <= stopSq;
 
+        // Fixed-point: same ranges on exact integer distances
+        long fdx = 0, fdy = 0, fDistSq = 0;
+        if (fixedPoint) {
+            fdx = Fixed.fromPx(px) - (long) fx;
+            fdy = Fixed.fromPx(py) - (long) fy;
+            fDistSq = fdx * fdx + fdy * fdy;
+            inAggro = fDistSq <= AGGRO_SQ_FX;
+            inStop = fDistSq <= STOP_SQ_FX;
+        }
+
         // Decide facing toward player which helps hitbox direction
         if (Math.abs(vx) >= Math.abs(vy)) {
             facingLeft = vx < 0f;
@@ -272,8 +372,8 @@ public class EnemyWarrior {
 
         // If currently attacking: do not move, just advance attack
         if (attackPlaying) {
-            attackTicks++;
-            updateAttackAnimation();
+            attackTicks += n;
+            updateAttackAnimation(n);
 
             if (attackTicks >= attackDurationTicks) {
                 attackPlaying = false;
@@ -293,35 +393,53 @@ public class EnemyWarrior {
         }
 
         // Chase if in aggro range but not close enough to attack
+        if (fixedPoint) {
+            int sx = 0, sy = 0;
+            long dist = Fixed.isqrt(fDistSq);
+            if (inAggro && !inStop && dist > 0) {
+                sx = (int) (fdx * SPEED_FX / dist);
+                sy = (int) (fdy * SPEED_FX / dist);
+            }
+            moveFixed(map, sx * n, sy * n);
+            updateAnimation(Fixed.toPx(sx), Fixed.toPx(sy), n);
+            return;
+        }
+
         if (inAggro && !inStop) {
             float dist = (float) Math.sqrt(distSq);
             if (dist > 0.0001f) { // prevents divide-by-zero
                 float nx = vx / dist;
                 float ny = vy / dist;
 
-                dx = nx * SPEED * (float) dt;
-                dy = ny * SPEED * (float) dt;
+                dx = nx * SPEED * (float) dt * n;
+                dy = ny * SPEED * (float) dt * n;
             }
         }
 
         // Move + animate aggro-ed enemy based on dx/dy
         move(map, dx, dy);
-        updateAnimation(dx, dy);
+        updateAnimation(dx, dy, n);
     }
 
-    private void updateAttackAnimation() {
-        if (currentAnimation != null) currentAnimation.update();
+    private void updateAttackAnimation(int ticks) {
+        if (currentAnimation != null) currentAnimation.update(ticks);
     }
 
     private void startAttackAnimation() {
         setAnimation(AnimationType.ATTACK, currentMoveType);
         attackTicks = 0;
+        attackId = CombatSystem.nextAttackId();
 
     }
 
     // Enemy hurtbox = feet collider
     public Rect getHurtbox() {
-        return new Rect(
+        return getHurtbox(new Rect());
+    }
+
+    // Allocation-free version: writes into a caller-owned rect and returns it
+    public Rect getHurtbox(Rect out) {
+        return out.set(
                 Math.round(x - COLLIDER_W / 2f),
                 Math.round(y + FOOT_OFFSET_Y - COLLIDER_H),
                 COLLIDER_W,
@@ -339,6 +457,14 @@ public class EnemyWarrior {
     }
 
 
+    public int getAttackId() {
+        return attackId;
+    }
+
+    public int getAttackDamage() {
+        return ATTACK_DAMAGE;
+    }
+
     public boolean isDead() {
         return dead;
     }
@@ -378,7 +504,7 @@ public class EnemyWarrior {
     }
 
 
-    private void updateAnimation(float dx, float dy) {
+    private void updateAnimation(float dx, float dy, int ticks) {
         boolean isMoving = (dx != 0f || dy != 0f);
 
         AnimationType animType = isMoving ? AnimationType.RUN : AnimationType.IDLE;
@@ -394,7 +520,7 @@ public class EnemyWarrior {
 
         setAnimation(animType, moveType);
 
-        if (currentAnimation != null) currentAnimation.update();
+        if (currentAnimation != null) currentAnimation.update(ticks);
     }
 
     public void cancelAttackAndStartCooldown() {
@@ -438,83 +564,141 @@ public class EnemyWarrior {
     }
 
     public void draw(Graphics2D g, Camera cam) {
-        if (removed) return;
-
-        int sx = (int) (x - cam.x);
-        int sy = (int) (y - cam.y);
+        drawPose(g, cam, capturePose(drawPose));
+    }
 
+    /**
+     * Copies what draw() needs into out, so it can be drawn later (or on another thread) with drawPose().
+     */
+    public SpritePose capturePose(SpritePose out) {
         Animation anim = (currentAnimation != null) ? currentAnimation : idleDownAnim;
-        BufferedImage frame = anim.getFrame();
+        out.clear();
+        if (removed) return out;
 
-        int fw = frame.getWidth();
-        int fh = frame.getHeight();
-
-        int drawX = sx - fw / 2;
-        int drawY = sy - fh / 2;
+        out.x = x;
+        out.y = y;
+        out.prevX = prevX;
+        out.prevY = prevY;
+        out.frame = (anim != null) ? anim.getFrame() : null;
+        out.facingLeft = facingLeft;
+        out.flash = !dead && invulnTicks > 0;
 
         // --- Fade alpha ---
-        float alpha = 1.0f;
         if (dead) {
-            alpha = 1.0f - (fadeTicks / (float) FADE_DURATION_TICKS);
-            if (alpha < 0f) alpha = 0f;
+            out.alpha = 1.0f - (fadeTicks / (float) FADE_DURATION_TICKS);
+            if (out.alpha < 0f) out.alpha = 0f;
         }
 
-        Composite oldComp = g.getComposite();
-        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+        // --- HP bar (won’t show when fully dead) ---
+        out.showHpBar = !dead;
+        out.hp = hp;
+        out.maxHp = MAX_HP;
+        return out;
+    }
 
-        if (facingLeft) {
-            g.drawImage(frame, drawX + fw, drawY, -fw, fh, null);
-        } else {
-            g.drawImage(frame, drawX, drawY, null);
+    public static void drawPose(Graphics2D g, Camera cam, SpritePose pose) {
+        drawPose(g, cam, pose, 1f);
+    }
+
+    // t: see Player#drawPose(Graphics2D, Camera, SpritePose, float)
+    public static void drawPose(Graphics2D g, Camera cam, SpritePose pose, float t) {
+        if (pose.frame == null) return;
+
+        int sx = (int) (pose.lerpX(t) - cam.x);
+        int sy = (int) (pose.lerpY(t) - cam.y);
+        int fh = pose.frame.getHeight();
+
+        // Mirroring, fade and hit flash come pre-rendered, so the sprite is a plain blit
+        // (null once the fade has quantized to nothing)
+        BufferedImage frame = FrameVariants.get(pose.frame, pose.facingLeft, pose.alpha, pose.flash);
+        if (frame != null) g.drawImage(frame, sx - frame.getWidth() / 2, sy - fh / 2, null);
+
+        if (pose.showHpBar) {
+            drawHpBar(g, sx, sy, fh, pose.hp, pose.maxHp);
         }
+    }
 
-        g.setComposite(oldComp);
+    /**
+     * Same as {@link #drawPose(Graphics2D, Camera, SpritePose, float)}, queued into a batch:
+     * the sprite on layer, its HP bar background / fill / border on layer + 1 / + 2 / + 3
+     * (within a layer the batch orders by image, so the overlapping bar parts need their own).
+     * Give each enemy its own block of 4 layers to keep the immediate path's order between enemies.
+     */
+    public static void submitPose(SpriteBatch batch, Camera cam, SpritePose pose, float t, int layer) {
+        if (pose.frame == null) return;
+
+        int sx = (int) (pose.lerpX(t) - cam.x);
+        int sy = (int) (pose.lerpY(t) - cam.y);
+        int fh = pose.frame.getHeight();
+
+        BufferedImage frame = FrameVariants.get(pose.frame, pose.facingLeft, pose.alpha, pose.flash);
+        if (frame != null) batch.draw(frame, sx - frame.getWidth() / 2, sy - fh / 2, layer);
+
+        if (pose.showHpBar) {
+            if (hpBarBgSwatch == null) {
+                hpBarBgSwatch = SpriteBatch.swatch(HP_BAR_BG);
+                hpBarFillSwatch = SpriteBatch.swatch(HP_BAR_FILL);
+                hpBarBorderSwatch = SpriteBatch.swatch(HP_BAR_BORDER);
+            }
 
-        // --- HP bar (won’t show when fully dead) ---
-        if (!dead) {
-            drawHpBar(g, cam, fw, fh);
+            int barW = 42;
+            int barH = 6;
+            int barX = sx - barW / 2;
+            int barY = sy - fh / 2 - 12;
+
+            float pct = (pose.maxHp <= 0) ? 0f : (pose.hp / (float) pose.maxHp);
+
+            batch.fillRect(hpBarBgSwatch, barX, barY, barW, barH, layer + 1);
+            batch.fillRect(hpBarFillSwatch, barX, barY, (int) (barW * pct), barH, layer + 2);
+            batch.outlineRect(hpBarBorderSwatch, barX, barY, barW, barH, layer + 3);
         }
     }
 
-    private void drawHpBar(Graphics2D g, Camera cam, int frameW, int frameH) {
+    private static void drawHpBar(Graphics2D g, int sx, int sy, int frameH, int hp, int maxHp) {
         // Bar size
         int barW = 42;
         int barH = 6;
 
         // Screen position: above the head
-        int sx = (int) (x - cam.x);
-        int sy = (int) (y - cam.y);
-
         int barX = sx - barW / 2;
         int barY = sy - frameH / 2 - 12;
 
         // Background
-        g.setColor(new Color(0, 0, 0, 160));
+        g.setColor(HP_BAR_BG);
         g.fillRect(barX, barY, barW, barH);
 
         // Fill
-        float pct = (MAX_HP <= 0) ? 0f : (hp / (float) MAX_HP);
+        float pct = (maxHp <= 0) ? 0f : (hp / (float) maxHp);
         int fillW = (int) (barW * pct);
 
-        g.setColor(new Color(200, 50, 50, 220));
+        g.setColor(HP_BAR_FILL);
         g.fillRect(barX, barY, fillW, barH);
 
         // Border
-        g.setColor(new Color(255, 255, 255, 200));
+        g.setColor(HP_BAR_BORDER);
         g.drawRect(barX, barY, barW, barH);
     }
 
     public Rect getAttackHitbox() {
-        if (!isAttackActive()) return null;
+        Rect out = new Rect();
+        return getAttackHitbox(out) ? out : null;
+    }
+
+    /**
+     * Allocation-free version: fills out and returns true while the attack is active.
+     */
+    public boolean getAttackHitbox(Rect out) {
+        if (!isAttackActive()) return false;
 
-        Rect hb = getHurtbox();
-        int w = 54;
-        int h = 54;
+        // Same numbers as getHurtbox(), without the temporary rect
+        int hbX = Math.round(x - COLLIDER_W / 2f);
+        int hbY = Math.round(y + FOOT_OFFSET_Y - COLLIDER_H);
 
-        int hbX = facingLeft ? (hb.x - w) : (hb.x + hb.w);
-        int hbY = hb.y + hb.h / 2 - h / 2;
+        int ax = facingLeft ? (hbX - ATTACK_BOX_W) : (hbX + COLLIDER_W);
+        int ay = hbY + COLLIDER_H / 2 - ATTACK_BOX_H / 2;
 
-        return new Rect(hbX, hbY, w, h);
+        out.set(ax, ay, ATTACK_BOX_W, ATTACK_BOX_H);
+        return true;
     }
 
     public void applyKnockbackFrom(float fromX, float fromY, float kbSpeed, int ticks) {
@@ -534,6 +718,20 @@ public class EnemyWarrior {
 
         kbVx = nx * kbSpeed;
         kbVy = ny * kbSpeed;
+
+        if (fixedPoint) {
+            long ddx = (long) fx - Fixed.fromPx(fromX);
+            long ddy = (long) fy - Fixed.fromPx(fromY);
+            long dist = Fixed.isqrt(ddx * ddx + ddy * ddy);
+            int speed = Fixed.speed(kbSpeed);
+            if (dist == 0) {
+                kbFx = speed;
+                kbFy = 0;
+            } else {
+                kbFx = (int) (ddx * speed / dist);
+                kbFy = (int) (ddy * speed / dist);
+            }
+        }
         kbTicks = Math.max(kbTicks, ticks); // keep strongest/longest if already active
     }
 
@@ -546,18 +744,18 @@ public class EnemyWarrior {
         int sx = (int) (colX - cam.x);
         int sy = (int) (colY - cam.y);
 
-        g.setColor(new Color(0, 255, 255, 120));
+        g.setColor(DEBUG_COLLIDER_COLOR);
         g.drawRect(sx, sy, COLLIDER_W, COLLIDER_H);
     }
 
     public void debugDrawAttackHitbox(Graphics2D g, Camera cam) {
-        Rect hb = getAttackHitbox();
-        if (hb == null) return;
+        Rect hb = debugRect;
+        if (!getAttackHitbox(hb)) return;
 
         int sx = hb.x - (int) cam.x;
         int sy = hb.y - (int) cam.y;
 
-        g.setColor(new Color(255, 0, 0, 150));
+        g.setColor(DEBUG_HITBOX_COLOR);
         g.drawRect(sx, sy, hb.w, hb.h);
     }
 
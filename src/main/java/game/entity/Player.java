@@ -1,16 +1,22 @@
 package main.java.game.entity;
 
 import main.java.game.gfx.Animation;
+import main.java.game.gfx.AssetRegistry;
 import main.java.game.gfx.Camera;
+import main.java.game.gfx.FrameVariants;
+import main.java.game.gfx.SpriteBatch;
 import main.java.game.map.TiledMap;
 import main.java.game.physics.Collider;
+import main.java.game.physics.ColliderQuery;
+import main.java.game.physics.ColliderStore;
+import main.java.game.physics.CollisionBackend;
+import main.java.game.physics.Contact;
+import main.java.game.physics.Fixed;
 import main.java.game.physics.Rect;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.Objects;
 
 public class Player {
 
@@ -18,6 +24,10 @@ public class Player {
     public float x;
     public float y;
 
+    // Position at the start of the current tick (render interpolation)
+    public float prevX;
+    public float prevY;
+
     // Submission default: OFF
     private static final boolean DEBUG = false;
 
@@ -59,6 +69,8 @@ public class Player {
 
     // Hurt / knockback
     private float invulnTimer = 0f;
+    private int lastHitAttackId = -1;
+    private int trapHits = 0;   // damaging trap contacts (stats)
     private static final float INVULN_TIME = 0.50f;
 
     private static final float HIT_KNOCKBACK_X = 140f;
@@ -69,6 +81,30 @@ public class Player {
     private float hitLockTimer = 0f;
     private float hitAnimTimer = 0f;
 
+    // ---- Fixed-point mode (optional) ----
+    // Integer state: position in subpixels, velocity in subpixels/tick, timers in ticks.
+    // x / y / vx / vy stay valid as a float view of it.
+    private boolean fixedPoint = false;
+    private int fx, fy;
+    private int fvx, fvy;
+    private int coyoteTicks, jumpBufferTicks, dropTicks;
+    private int invulnTicks, hitLockTicks, hitAnimTicks;
+
+    private static final int MOVE_SPEED_FX = Fixed.speed(MOVE_SPEED);
+    private static final int GRAVITY_FX = Fixed.accel(GRAVITY);
+    private static final int JUMP_VEL_FX = Fixed.speed(JUMP_VEL);
+    private static final int MAX_FALL_FX = Fixed.speed(MAX_FALL);
+    private static final int DROP_PUSH_FX = Fixed.fromPx(DROP_PUSH);
+    private static final int HIT_KNOCKBACK_X_FX = Fixed.speed(HIT_KNOCKBACK_X);
+    private static final int HIT_KNOCKBACK_Y_FX = Fixed.speed(HIT_KNOCKBACK_Y);
+
+    private static final int COYOTE_TICKS = Fixed.ticks(COYOTE_TIME);
+    private static final int JUMP_BUFFER_TICKS = Fixed.ticks(JUMP_BUFFER);
+    private static final int DROP_TICKS = Fixed.ticks(DROP_TIME);
+    private static final int INVULN_TICKS = Fixed.ticks(INVULN_TIME);
+    private static final int HIT_LOCK_TICKS = Fixed.ticks(HIT_LOCK_TIME);
+    private static final int HIT_ANIM_TICKS = Fixed.ticks(HIT_ANIM_TIME);
+
     // Collider (smaller than sprite)
     private static final int COLLIDER_W = 12;
     private static final int COLLIDER_H = 18;
@@ -90,21 +126,62 @@ public class Player {
 
     private Animation currentAnim;
 
+    // Scratch pose for draw()
+    private final SpritePose drawPose = new SpritePose();
+
     private final String spriteBasePath;
 
+    // Reused broadphase / collision buffers
+    private final ColliderQuery nearby = new ColliderQuery();
+    private final Contact contact = new Contact();
+
     public boolean isLevelComplete() {
         return levelComplete;
     }
 
 
+    /**
+     * @param spriteBasePath sprite folder, or null for a headless player (no images decoded, draw() is a no-op)
+     */
     public Player(float x, float y, String spriteBasePath) {
         this.x = x;
         this.y = y;
-        this.spriteBasePath = spriteBasePath.endsWith("/") ? spriteBasePath : (spriteBasePath + "/");
-        initAnimations();
+        savePrevious();
+        if (spriteBasePath == null) {
+            this.spriteBasePath = null;
+        } else {
+            this.spriteBasePath = spriteBasePath.endsWith("/") ? spriteBasePath : (spriteBasePath + "/");
+            initAnimations();
+        }
         setAnim(AnimState.IDLE);
     }
 
+    /**
+     * Switches to integer subpixel physics (bit-for-bit reproducible for the same inputs).
+     * In this mode update() steps exactly one tick of 1/{@link Fixed#TICK_RATE} s and ignores dt,
+     * and horizontal input is digital (only the sign of dx is used).
+     */
+    public void setFixedPoint(boolean fixedPoint) {
+        this.fixedPoint = fixedPoint;
+        fx = Fixed.fromPx(x);
+        fy = Fixed.fromPx(y);
+        fvx = Fixed.speed(vx);
+        fvy = Fixed.speed(vy);
+    }
+
+    public boolean isFixedPoint() {
+        return fixedPoint;
+    }
+
+    /**
+     * Marks the current position as the start of the next tick; also call it after teleporting
+     * (spawn, stage change) so nothing is interpolated across the jump.
+     */
+    public void savePrevious() {
+        prevX = x;
+        prevY = y;
+    }
+
     public void clampToWorld(TiledMap map) {
         // prevent top-of-screen spawn
         float minY = (COLLIDER_H / 2f) - COLLIDER_OFFSET_Y + 2f;
@@ -125,6 +202,11 @@ public class Player {
             return;
         }
 
+        if (fixedPoint) {
+            updateFixed(map, dx, jumpPressed, jumpReleased, downHeld);
+            return;
+        }
+
         boolean wasOnGround = onGround;
         boolean jumpedThisFrame = false;
         boolean didDropThisFrame = false;
@@ -221,27 +303,159 @@ public class Player {
         if (currentAnim != null) currentAnim.update();
     }
 
+    // Fixed-point version of update(): same rules, integer state, one tick per call
+    private void updateFixed(TiledMap map, float dx, boolean jumpPressed, boolean jumpReleased, boolean downHeld) {
+        // Pick up positions set from outside (spawn, clampToWorld)
+        if (x != Fixed.toPx(fx)) fx = Fixed.fromPx(x);
+        if (y != Fixed.toPx(fy)) fy = Fixed.fromPx(y);
+
+        boolean wasOnGround = onGround;
+        boolean jumpedThisFrame = false;
+        boolean didDropThisFrame = false;
+
+        // Timers
+        if (onGround) coyoteTicks = COYOTE_TICKS;
+        else if (coyoteTicks > 0) coyoteTicks--;
+
+        if (dropTicks > 0) dropTicks--;
+        if (dropTicks == 0) dropping = false;
+
+        if (invulnTicks > 0) invulnTicks--;
+        if (hitLockTicks > 0) hitLockTicks--;
+        if (hitAnimTicks > 0) hitAnimTicks--;
+
+        // Horizontal intent (only if not locked by hit)
+        if (hitLockTicks == 0) {
+            int dir = (dx > 0f) ? 1 : (dx < 0f) ? -1 : 0;
+            fvx = dir * MOVE_SPEED_FX;
+
+            if (dir < 0) facingLeft = true;
+            else if (dir > 0) facingLeft = false;
+        }
+
+        // Drop through one-way (down + jump on ground)
+        if (downHeld && jumpPressed && onGround) {
+            dropping = true;
+            dropTicks = DROP_TICKS;
+            onGround = false;
+            fy += DROP_PUSH_FX;
+
+            jumpBufferTicks = 0;
+            coyoteTicks = 0;
+            didDropThisFrame = true;
+        }
+
+        // Jump buffer
+        if (jumpPressed && !didDropThisFrame) jumpBufferTicks = JUMP_BUFFER_TICKS;
+        else if (jumpBufferTicks > 0) jumpBufferTicks--;
+
+        // Consume buffered jump if allowed
+        if (jumpBufferTicks > 0) {
+            if (coyoteTicks > 0 && jumpsLeft > 0) {
+                fvy = JUMP_VEL_FX;
+                onGround = false;
+
+                jumpsLeft--;
+                jumpedThisFrame = true;
+
+                coyoteTicks = 0;
+                jumpBufferTicks = 0;
+            } else if (!onGround && jumpsLeft > 0) {
+                fvy = JUMP_VEL_FX * 9 / 10;
+                jumpsLeft--;
+                jumpedThisFrame = true;
+
+                jumpBufferTicks = 0;
+            }
+        }
+
+        // Variable jump height
+        if (jumpReleased && fvy < 0) fvy = fvy * 45 / 100;
+
+        // Gravity
+        fvy += GRAVITY_FX;
+        if (fvy > MAX_FALL_FX) fvy = MAX_FALL_FX;
+
+        moveAndCollideFixed(map);
+
+        if (wasOnGround && !onGround && !jumpedThisFrame) {
+            jumpsLeft = Math.min(jumpsLeft, MAX_JUMPS - 1);
+        }
+
+        // Float view for gameplay checks, animation and rendering
+        vx = Fixed.toPxPerSec(fvx);
+        vy = Fixed.toPxPerSec(fvy);
+
+        checkTraps(map);
+        checkGoal(map);
+
+        updateAnimation();
+        if (currentAnim != null) currentAnim.update();
+    }
+
     public void tick(double dt) { /* reserved for future use */ }
 
     public Rect getHurtbox() {
-        return new Rect((int) colX(), (int) colY(), COLLIDER_W, COLLIDER_H);
+        return getHurtbox(new Rect());
+    }
+
+    // Allocation-free version: writes into a caller-owned rect and returns it
+    public Rect getHurtbox(Rect out) {
+        return out.set((int) colX(), (int) colY(), COLLIDER_W, COLLIDER_H);
     }
 
     public void draw(Graphics2D g, Camera cam) {
+        drawPose(g, cam, capturePose(drawPose));
+    }
+
+    /**
+     * Copies what draw() needs into out, so it can be drawn later (or on another thread) with drawPose().
+     */
+    public SpritePose capturePose(SpritePose out) {
         Animation anim = (currentAnim != null) ? currentAnim : idleAnim;
-        BufferedImage frame = anim.getFrame();
+        out.clear();
+        out.x = x;
+        out.y = y;
+        out.prevX = prevX;
+        out.prevY = prevY;
+        out.frame = (anim != null) ? anim.getFrame() : null;
+        out.facingLeft = facingLeft;
+        out.flash = fixedPoint ? hitAnimTicks > 0 : hitAnimTimer > 0f;
+        return out;
+    }
+
+    public static void drawPose(Graphics2D g, Camera cam, SpritePose pose) {
+        drawPose(g, cam, pose, 1f);
+    }
 
-        int sx = (int) (x - cam.x);
-        int sy = (int) (y - cam.y);
+    /**
+     * @param t how far between the pose's previous (0) and current (1) position to draw it
+     */
+    public static void drawPose(Graphics2D g, Camera cam, SpritePose pose, float t) {
+        // Mirroring / hit flash come pre-rendered, so this is always a plain blit
+        BufferedImage frame = FrameVariants.get(pose.frame, pose.facingLeft, 1f, pose.flash);
+        if (frame == null) return;
+
+        int sx = (int) (pose.lerpX(t) - cam.x);
+        int sy = (int) (pose.lerpY(t) - cam.y);
 
         int fw = frame.getWidth();
         int fh = frame.getHeight();
 
-        int drawX = sx - fw / 2;
-        int drawY = sy - fh / 2;
+        g.drawImage(frame, sx - fw / 2, sy - fh / 2, null);
+    }
+
+    /**
+     * Same as {@link #drawPose(Graphics2D, Camera, SpritePose, float)}, queued into a batch.
+     */
+    public static void submitPose(SpriteBatch batch, Camera cam, SpritePose pose, float t, int layer) {
+        BufferedImage frame = FrameVariants.get(pose.frame, pose.facingLeft, 1f, pose.flash);
+        if (frame == null) return;
 
-        if (facingLeft) g.drawImage(frame, drawX + fw, drawY, -fw, fh, null);
-        else g.drawImage(frame, drawX, drawY, null);
+        int drawX = (int) (pose.lerpX(t) - cam.x) - frame.getWidth() / 2;
+        int drawY = (int) (pose.lerpY(t) - cam.y) - frame.getHeight() / 2;
+
+        batch.draw(frame, drawX, drawY, layer);
     }
 
     // -------- Internals --------
@@ -261,7 +475,7 @@ public class Player {
     }
 
     private void updateAnimation() {
-        if (hitAnimTimer > 0f) {
+        if (fixedPoint ? hitAnimTicks > 0 : hitAnimTimer > 0f) {
             currentAnim = hitAnim;
             return;
         }
@@ -295,30 +509,34 @@ public class Player {
         float cx = colX();
         float cy = colY();
 
-        for (Collider c : map.colliders) {
-            if (c.type != Collider.Type.GOAL) continue;
-
-            if (c.rect.intersects(cx, cy, COLLIDER_W, COLLIDER_H)) {
+        ColliderStore.Partition goals = map.partition(Collider.Type.GOAL);
+        goals.query(cx, cy, COLLIDER_W, COLLIDER_H, nearby);
+        for (int i = 0; i < nearby.size(); i++) {
+            if (goals.intersects(nearby.get(i), cx, cy, COLLIDER_W, COLLIDER_H)) {
                 levelComplete = true;
                 vx = 0f;
                 vy = 0f;
+                fvx = 0;
+                fvy = 0;
                 break;
             }
         }
     }
 
     private void checkTraps(TiledMap map) {
-        if (invulnTimer > 0f) return;
+        if (isInvulnerable()) return;
 
         float cx = colX();
         float cy = colY();
 
-        for (Collider c : map.colliders) {
-            if (c.type != Collider.Type.TRAP) continue;
-
-            if (c.rect.intersects(cx, cy, COLLIDER_W, COLLIDER_H)) {
-                takeHit(c.damage);
-                if (DEBUG) System.out.println("[TRAP] hit " + c.tag + " dmg=" + c.damage);
+        ColliderStore.Partition traps = map.partition(Collider.Type.TRAP);
+        traps.query(cx, cy, COLLIDER_W, COLLIDER_H, nearby);
+        for (int i = 0; i < nearby.size(); i++) {
+            int t = nearby.get(i);
+            if (traps.intersects(t, cx, cy, COLLIDER_W, COLLIDER_H)) {
+                takeHit(traps.damage[t]);
+                trapHits++;
+                if (DEBUG) System.out.println("[TRAP] hit " + traps.tag[t] + " dmg=" + traps.damage[t]);
                 break;
             }
         }
@@ -330,11 +548,18 @@ public class Player {
         // Clear per-run flags
         levelComplete = false;
          invulnTimer = 0f;
+         lastHitAttackId = -1;
          vx = 0f; vy = 0f;
          onGround = false;
+         invulnTicks = 0;
+         fvx = 0; fvy = 0;
     }
 
 
+    public int getTrapHits() {
+        return trapHits;
+    }
+
     public int getHp() {
         return hp;
     }
@@ -348,9 +573,23 @@ public class Player {
         dead = false;
     }
 
+    // Hit from an enemy swing: each attackId lands at most once
+    public void takeHit(int dmg, int attackId) {
+        if (dead) return;
+        if (isInvulnerable()) return;
+        if (attackId == lastHitAttackId) return;
+
+        lastHitAttackId = attackId;
+        takeHit(dmg);
+    }
+
+    private boolean isInvulnerable() {
+        return fixedPoint ? invulnTicks > 0 : invulnTimer > 0f;
+    }
+
     public void takeHit(int dmg) {
         if (dead) return;
-        if (invulnTimer > 0f) return;
+        if (isInvulnerable()) return;
         hp -= Math.max(0, dmg);
         if (hp <= 0) {
             hp = 0;
@@ -368,6 +607,14 @@ public class Player {
         vx = dir * HIT_KNOCKBACK_X;
         vy = HIT_KNOCKBACK_Y;
         onGround = false;
+
+        if (fixedPoint) {
+            invulnTicks = INVULN_TICKS;
+            hitLockTicks = HIT_LOCK_TICKS;
+            hitAnimTicks = HIT_ANIM_TICKS;
+            fvx = (facingLeft ? 1 : -1) * HIT_KNOCKBACK_X_FX;
+            fvy = HIT_KNOCKBACK_Y_FX;
+        }
     }
 
     // Collider position in world-space (top-left of hurtbox)
@@ -380,130 +627,90 @@ public class Player {
     }
 
     private void moveAndCollide(TiledMap map, float dt) {
-        // ---- Horizontal ----
-        float newX = x + vx * dt;
-        float cx = newX - COLLIDER_W / 2f;
-        float cy = colY();
+        CollisionBackend world = map.collision();
 
+        // ---- Horizontal (only SOLID blocks sideways) ----
+        float newX = x + vx * dt;
         if (vx != 0f) {
-            for (Collider c : map.colliders) {
-                if (c.type == Collider.Type.ONE_WAY) continue;
-                if (c.type == Collider.Type.TRAP) continue;
-                if (c.type == Collider.Type.GOAL) continue;
-
-                if (c.rect.intersects(cx, cy, COLLIDER_W, COLLIDER_H)) {
-                    if (vx > 0f) newX = c.rect.x - COLLIDER_W / 2f;
-                    else newX = c.rect.x + c.rect.w + COLLIDER_W / 2f;
-                    cx = newX - COLLIDER_W / 2f;
-                }
-            }
+            newX = world.moveX(x, newX, -COLLIDER_W / 2f, colY(), COLLIDER_W, COLLIDER_H, false, contact);
         }
         x = newX;
 
-        // ---- Vertical ----
-        float prevColTop = colY();
-        float prevColBottom = prevColTop + COLLIDER_H;
-
+        // ---- Vertical (SOLID + ONE_WAY platforms) ----
         float newY = y + vy * dt;
-        float newColTop = (newY - COLLIDER_H / 2f) + COLLIDER_OFFSET_Y;
-        float newColBottom = newColTop + COLLIDER_H;
-
         boolean landed = false;
 
         if (vy != 0f) {
-            float testX = colX();
-
-            for (Collider c : map.colliders) {
-                if (c.type == Collider.Type.TRAP) continue;
-                if (c.type == Collider.Type.GOAL) continue;
-
-                if (!c.rect.intersects(testX, newColTop, COLLIDER_W, COLLIDER_H)) continue;
+            newY = world.moveY(colX(), y, newY, COLLIDER_OFFSET_Y - COLLIDER_H / 2f, COLLIDER_W, COLLIDER_H,
+                    false, dropping, ONE_WAY_EDGE_PAD, contact);
 
-                if (vy > 0f) {
-                    if (c.type == Collider.Type.ONE_WAY) {
-                        if (dropping) continue;
+            landed = contact.landed;
+            if (contact.landed || contact.hitHead) vy = 0f;
+        }
 
-                        float platformTop = c.rect.y;
-                        boolean wasAbove = prevColBottom <= platformTop + 0.5f;
-                        boolean nowCrossed = newColBottom >= platformTop;
+        y = newY;
 
-                        float playerLeft = testX;
-                        float playerRight = testX + COLLIDER_W;
+        if (landed) {
+            onGround = true;
+            jumpsLeft = MAX_JUMPS;
+        } else if (vy != 0f) {
+            onGround = false;
+        }
+    }
 
-                        float platLeft = c.rect.x + ONE_WAY_EDGE_PAD;
-                        float platRight = c.rect.x + c.rect.w - ONE_WAY_EDGE_PAD;
+    // Same as moveAndCollide() on the subpixel state. Every value passed to the backend is exact
+    // in float, and so are its results (collider faces are whole pixels), so nothing is rounded.
+    private void moveAndCollideFixed(TiledMap map) {
+        CollisionBackend world = map.collision();
 
-                        boolean overlapsHoriz = playerRight > platLeft && playerLeft < platRight;
-                        if (!(wasAbove && nowCrossed && overlapsHoriz)) continue;
-                    }
+        // ---- Horizontal ----
+        float top = Fixed.toPx(fy) - COLLIDER_H / 2f + COLLIDER_OFFSET_Y;
+        int newFx = fx + fvx;
+        if (fvx != 0) {
+            newFx = Fixed.fromPx(world.moveX(Fixed.toPx(fx), Fixed.toPx(newFx), -COLLIDER_W / 2f, top,
+                    COLLIDER_W, COLLIDER_H, false, contact));
+        }
+        fx = newFx;
 
-                    // land on top
-                    float desiredColTop = c.rect.y - COLLIDER_H;
-                    newY = (desiredColTop - COLLIDER_OFFSET_Y) + (COLLIDER_H / 2f);
-                    vy = 0f;
-                    landed = true;
-                } else {
-                    // Moving up: ONE_WAY should be pass-through
-                    if (c.type == Collider.Type.ONE_WAY) continue;
+        // ---- Vertical ----
+        float left = Fixed.toPx(fx) - COLLIDER_W / 2f;
+        int newFy = fy + fvy;
+        boolean landed = false;
 
-                    // hit head
-                    float desiredColTop = c.rect.y + c.rect.h;
-                    newY = (desiredColTop - COLLIDER_OFFSET_Y) + (COLLIDER_H / 2f);
-                    vy = 0f;
-                }
+        if (fvy != 0) {
+            newFy = Fixed.fromPx(world.moveY(left, Fixed.toPx(fy), Fixed.toPx(newFy),
+                    COLLIDER_OFFSET_Y - COLLIDER_H / 2f, COLLIDER_W, COLLIDER_H,
+                    false, dropping, ONE_WAY_EDGE_PAD, contact));
 
-                newColTop = (newY - COLLIDER_H / 2f) + COLLIDER_OFFSET_Y;
-                newColBottom = newColTop + COLLIDER_H;
-            }
+            landed = contact.landed;
+            if (contact.landed || contact.hitHead) fvy = 0;
         }
+        fy = newFy;
 
-        y = newY;
+        x = Fixed.toPx(fx);
+        y = Fixed.toPx(fy);
 
         if (landed) {
             onGround = true;
             jumpsLeft = MAX_JUMPS;
-        } else if (vy != 0f) {
+        } else if (fvy != 0) {
             onGround = false;
         }
     }
 
+    // Frames are shared through the registry (decoded once per process); the Animation state is ours
     private Animation loadStrip(String path, int frameCount, int frameDelay) {
         try {
-            BufferedImage sheet = ImageIO.read(Objects.requireNonNull(
-                    getClass().getResource(path),
-                    "Missing sprite sheet: " + path
-            ));
-
-            int fw = sheet.getWidth() / frameCount;
-            int fh = sheet.getHeight();
-
-            BufferedImage[] frames = new BufferedImage[frameCount];
-            for (int i = 0; i < frameCount; i++) {
-                frames[i] = sheet.getSubimage(i * fw, 0, fw, fh);
-            }
-            return new Animation(frames, frameDelay);
-
+            return new Animation(AssetRegistry.strip(path, frameCount), frameDelay);
         } catch (IOException e) {
             throw new RuntimeException("Failed to load sprite sheet: " + path, e);
         }
     }
 
     private Animation loadStripOptional(String path, int frameCount, int frameDelay) {
+        if (!AssetRegistry.exists(path)) return null;
         try {
-            if (getClass().getResource(path) == null) return null;
-
-            BufferedImage sheet = ImageIO.read(Objects.requireNonNull(getClass().getResource(path)));
-            if (sheet == null) return null;
-
-            int fw = sheet.getWidth() / frameCount;
-            int fh = sheet.getHeight();
-
-            BufferedImage[] frames = new BufferedImage[frameCount];
-            for (int i = 0; i < frameCount; i++) {
-                frames[i] = sheet.getSubimage(i * fw, 0, fw, fh);
-            }
-            return new Animation(frames, frameDelay);
-
+            return new Animation(AssetRegistry.strip(path, frameCount), frameDelay);
         } catch (Exception ignored) {
             return null;
         }
@@ -0,0 +1,48 @@
+package main.java.game.entity;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Everything needed to draw one entity, copied out of it at the end of a tick.
+ * Reused across ticks (see {@link Player#capturePose} / {@link EnemyWarrior#capturePose}),
+ * so a renderer on another thread can draw it while the entity keeps simulating.
+ */
+public class SpritePose {
+
+    // World-space sprite center in pixels, now and at the start of the tick
+    public float x, y;
+    public float prevX, prevY;
+
+    // Current animation frame (null = nothing to draw)
+    public BufferedImage frame;
+    public boolean facingLeft;
+
+    // 1 = opaque; below 1 while fading out
+    public float alpha = 1f;
+
+    // Drawn tinted white (just hit)
+    public boolean flash;
+
+    // HP bar (enemies only)
+    public boolean showHpBar;
+    public int hp, maxHp;
+
+    public float lerpX(float t) {
+        return prevX + (x - prevX) * t;
+    }
+
+    public float lerpY(float t) {
+        return prevY + (y - prevY) * t;
+    }
+
+    public SpritePose clear() {
+        frame = null;
+        facingLeft = false;
+        alpha = 1f;
+        flash = false;
+        showHpBar = false;
+        hp = 0;
+        maxHp = 0;
+        return this;
+    }
+}
@@ -33,6 +33,18 @@ public class Animation {
         }
     }
 
+    /**
+     * Same as calling update() ticks times (entities updated at a reduced rate catch up with this).
+     */
+    public void update(int ticks) {
+        if (ticks <= 0) return;
+        tick += ticks;
+        if (tick >= frameDelay) {
+            index = (index + tick / frameDelay) % frames.length;
+            tick %= frameDelay;
+        }
+    }
+
     public BufferedImage getFrame() {
         return frames[index];
     }
@@ -0,0 +1,110 @@
+package main.java.game.gfx;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide cache of decoded animation frames, keyed by resource path and frame layout.
+ * <p>
+ * Entities are rebuilt on every stage change, restart and spawn; with this they share the frames
+ * decoded the first time (already {@link Images#toCompatible compatible}) instead of reading the
+ * PNGs again. Frames are held through soft references: a sheet nobody uses stays cached until the
+ * heap runs short, and is simply decoded again if asked for after that.
+ * <p>
+ * Thread-safe; concurrent first requests for the same sheet decode it once. Callers must not
+ * modify the returned arrays or images.
+ */
+public final class AssetRegistry {
+
+    private record Key(String path, int frameCount, int frameW, int frameH) {
+    }
+
+    // Per-key lock + cached frames
+    private static final class Slot {
+        SoftReference<BufferedImage[]> frames;
+    }
+
+    private static final ConcurrentHashMap<Key, Slot> slots = new ConcurrentHashMap<>();
+    private static final AtomicInteger decodes = new AtomicInteger();
+
+    private AssetRegistry() {
+    }
+
+    /**
+     * Horizontal strip cut into frameCount frames of equal width (sheet width / frameCount, full height).
+     *
+     * @throws IOException if the resource is missing or can't be decoded
+     */
+    public static BufferedImage[] strip(String path, int frameCount) throws IOException {
+        return frames(new Key(path, frameCount, 0, 0));
+    }
+
+    /**
+     * The first frameCount frames of frameW x frameH from the top row of a sheet.
+     *
+     * @throws IOException if the resource is missing or can't be decoded
+     */
+    public static BufferedImage[] strip(String path, int frameCount, int frameW, int frameH) throws IOException {
+        return frames(new Key(path, frameCount, frameW, frameH));
+    }
+
+    /**
+     * True if the resource exists (for optional sheets).
+     */
+    public static boolean exists(String path) {
+        return AssetRegistry.class.getResource(path) != null;
+    }
+
+    /**
+     * Sheets decoded since startup (a sheet decoded again after eviction counts twice).
+     */
+    public static int decodeCount() {
+        return decodes.get();
+    }
+
+    /**
+     * Drops every cached sheet (entities keep the frames they already have).
+     */
+    public static void clear() {
+        slots.clear();
+    }
+
+    // ---- Internals ----
+
+    private static BufferedImage[] frames(Key key) throws IOException {
+        if (key.frameCount <= 0) throw new IllegalArgumentException("frameCount must be > 0: " + key.path);
+
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+        synchronized (slot) {
+            BufferedImage[] frames = (slot.frames != null) ? slot.frames.get() : null;
+            if (frames == null) {
+                frames = decode(key);
+                slot.frames = new SoftReference<>(frames);
+            }
+            return frames;
+        }
+    }
+
+    private static BufferedImage[] decode(Key key) throws IOException {
+        URL url = AssetRegistry.class.getResource(key.path);
+        if (url == null) throw new IOException("Missing sprite sheet: " + key.path);
+
+        BufferedImage sheet = ImageIO.read(url);
+        if (sheet == null) throw new IOException("Unreadable sprite sheet: " + key.path);
+        decodes.incrementAndGet();
+
+        int fw = (key.frameW > 0) ? key.frameW : sheet.getWidth() / key.frameCount;
+        int fh = (key.frameH > 0) ? key.frameH : sheet.getHeight();
+
+        BufferedImage[] frames = new BufferedImage[key.frameCount];
+        for (int i = 0; i < key.frameCount; i++) {
+            frames[i] = Images.toCompatible(sheet.getSubimage(i * fw, 0, fw, fh));
+        }
+        return frames;
+    }
+}
@@ -9,6 +9,9 @@ public class Camera {
     // World-space position of the top-left corner (in pixels)
     public float x, y;
 
+    // Position at the start of the current tick (render interpolation)
+    public float prevX, prevY;
+
     // Viewport size in pixels
     public final int viewW, viewH;
 
@@ -22,6 +25,23 @@ public class Camera {
         this.viewH = viewH;
         this.worldW = worldW;
         this.worldH = worldH;
+        savePrevious();
+    }
+
+    /**
+     * Marks the current position as the start of the next tick (call before moving it for a tick).
+     */
+    public void savePrevious() {
+        prevX = x;
+        prevY = y;
+    }
+
+    /**
+     * Places this camera between src's previous (t = 0) and current (t = 1) position.
+     */
+    public void setInterpolated(Camera src, float t) {
+        x = src.prevX + (src.x - src.prevX) * t;
+        y = src.prevY + (src.y - src.prevY) * t;
     }
 
     /**
@@ -0,0 +1,220 @@
+package main.java.game.gfx;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-rendered effect versions of animation frames: mirrored, faded (alpha quantized to
+ * {@link #FADE_LEVELS} steps) and hit-flashed, in any combination.
+ * <p>
+ * A variant is baked the first time it is asked for and kept, so drawing an effect is a plain blit
+ * with the default composite instead of a negative-width (transformed) draw or a per-sprite
+ * AlphaComposite. Variants are grouped per source frame; when they exceed {@link #MAX_BYTES}, the
+ * least recently used frames lose all theirs (and are baked again if they come back).
+ * <p>
+ * Source frames are held weakly: a frame's variants live only as long as something else (an entity,
+ * or {@link AssetRegistry}'s soft cache) keeps the frame, and are dropped soon after it is collected.
+ * So the cache never keeps a frame alive, and {@link #MAX_BYTES} counts only the variants.
+ * <p>
+ * Shared by every entity; lookups are synchronized, but normally only the rendering thread draws.
+ */
+public final class FrameVariants {
+
+    // Fade steps between transparent (0) and opaque; a fade looks continuous well before 16
+    public static final int FADE_LEVELS = 16;
+
+    // White blended over the frame's own pixels (its alpha is kept)
+    private static final Color FLASH_COLOR = Color.WHITE;
+    private static final float FLASH_STRENGTH = 0.6f;
+
+    // 16 MB of ARGB pixels (a 192x192 warrior variant is 144 KB, a 32x32 player one 4 KB): mirror, flash
+    // and both for the warrior's 18 live frames (7.6 MB) and the player's 32 (0.4 MB), plus every fade
+    // level of a dying warrior's frame, both facings (4.5 MB)
+    private static final long MAX_BYTES = 16L << 20;
+
+    private static final int VARIANTS_PER_FRAME = (FADE_LEVELS + 1) * 4;
+
+    private static final class Entry {
+        final BufferedImage[] variants = new BufferedImage[VARIANTS_PER_FRAME];
+        long bytes;
+    }
+
+    // Source frame by identity (a cleared key only equals itself)
+    private interface FrameKey {
+        BufferedImage frame();
+
+        static boolean same(FrameKey a, Object o) {
+            if (a == o) return true;
+            if (!(o instanceof FrameKey b)) return false;
+            BufferedImage f = a.frame();
+            return f != null && f == b.frame();
+        }
+    }
+
+    private static final class WeakKey extends WeakReference<BufferedImage> implements FrameKey {
+        private final int hash;
+
+        WeakKey(BufferedImage frame) {
+            super(frame, collected);
+            hash = System.identityHashCode(frame);
+        }
+
+        @Override
+        public BufferedImage frame() {
+            return get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return FrameKey.same(this, o);
+        }
+    }
+
+    // Reused for lookups, so a hit allocates nothing
+    private static final class LookupKey implements FrameKey {
+        BufferedImage frame;
+
+        @Override
+        public BufferedImage frame() {
+            return frame;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(frame);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return FrameKey.same(this, o);
+        }
+    }
+
+    // Access order: iteration starts at the least recently used frame
+    private static final LinkedHashMap<FrameKey, Entry> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private static final ReferenceQueue<BufferedImage> collected = new ReferenceQueue<>();
+    private static final LookupKey lookup = new LookupKey();
+    private static long bytes;
+
+    private FrameVariants() {
+    }
+
+    /**
+     * frame with the given effects, ready to draw unflipped at full opacity.
+     * Returns frame itself when there is nothing to apply, and null when the fade leaves nothing to draw.
+     *
+     * @param alpha opacity 0..1, rounded to the nearest of {@link #FADE_LEVELS} steps
+     */
+    public static synchronized BufferedImage get(BufferedImage frame, boolean mirrored, float alpha, boolean flash) {
+        if (frame == null) return null;
+
+        int level = fadeLevel(alpha);
+        if (level == 0) return null;
+        if (level == FADE_LEVELS && !mirrored && !flash) return frame;
+
+        purgeCollected();
+
+        lookup.frame = frame;
+        Entry e = cache.get(lookup);
+        lookup.frame = null;
+        if (e == null) {
+            e = new Entry();
+            cache.put(new WeakKey(frame), e);
+        }
+
+        int index = (level << 2) | (flash ? 2 : 0) | (mirrored ? 1 : 0);
+        BufferedImage img = e.variants[index];
+        if (img == null) {
+            img = bake(frame, mirrored, level, flash);
+            e.variants[index] = img;
+
+            long size = 4L * img.getWidth() * img.getHeight();
+            e.bytes += size;
+            bytes += size;
+            evict(e);
+        }
+        return img;
+    }
+
+    /**
+     * Pixel bytes held by baked variants.
+     */
+    public static synchronized long residentBytes() {
+        purgeCollected();
+        return bytes;
+    }
+
+    /**
+     * Drops every variant (they are baked again on demand).
+     */
+    public static synchronized void clear() {
+        cache.clear();
+        bytes = 0;
+    }
+
+    // ---- Internals ----
+
+    private static int fadeLevel(float alpha) {
+        if (!(alpha > 0f)) return 0;
+        if (alpha >= 1f) return FADE_LEVELS;
+        return Math.round(alpha * FADE_LEVELS);
+    }
+
+    // Drops the variants of frames that were garbage collected
+    private static void purgeCollected() {
+        Object ref;
+        while ((ref = collected.poll()) != null) {
+            Entry e = cache.remove(ref);
+            if (e != null) bytes -= e.bytes;
+        }
+    }
+
+    // Least recently used frames first, never the one just baked for
+    private static void evict(Entry keep) {
+        Iterator<Map.Entry<FrameKey, Entry>> it = cache.entrySet().iterator();
+        while (bytes > MAX_BYTES && it.hasNext()) {
+            Entry e = it.next().getValue();
+            if (e == keep) continue;
+            bytes -= e.bytes;
+            it.remove();
+        }
+    }
+
+    private static BufferedImage bake(BufferedImage frame, boolean mirrored, int level, boolean flash) {
+        int w = frame.getWidth();
+        int h = frame.getHeight();
+
+        BufferedImage img = Images.createCompatible(w, h, Transparency.TRANSLUCENT);
+        Graphics2D g = img.createGraphics();
+        try {
+            if (level < FADE_LEVELS) {
+                g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, level / (float) FADE_LEVELS));
+            }
+            if (mirrored) g.drawImage(frame, w, 0, -w, h, null);
+            else g.drawImage(frame, 0, 0, null);
+
+            if (flash) {
+                // Atop: tints only where the frame has pixels, keeping its (faded) alpha
+                g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_ATOP, FLASH_STRENGTH));
+                g.setColor(FLASH_COLOR);
+                g.fillRect(0, 0, w, h);
+            }
+        } finally {
+            g.dispose();
+        }
+        return img;
+    }
+}
@@ -0,0 +1,67 @@
+package main.java.game.gfx;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Converts loaded images to the screen's native (compatible) format, so Java2D can keep them as
+ * managed images (cached in VRAM where the pipeline supports it) and blit them with its fastest loops.
+ * <p>
+ * PNGs decode as TYPE_4BYTE_ABGR, which every draw has to convert. Without a screen (headless)
+ * images become INT_ARGB_PRE / INT_RGB, the software loops' fast formats.
+ * Never grab the pixel arrays of the results (getDataBuffer().getData()): that un-manages them.
+ */
+public final class Images {
+
+    private Images() {
+    }
+
+    // Null when headless
+    private static GraphicsConfiguration screenConfig() {
+        if (GraphicsEnvironment.isHeadless()) return null;
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+    }
+
+    /**
+     * Empty image in the screen's format.
+     *
+     * @param transparency Transparency.OPAQUE, BITMASK or TRANSLUCENT
+     */
+    public static BufferedImage createCompatible(int w, int h, int transparency) {
+        GraphicsConfiguration gc = screenConfig();
+        if (gc != null) return gc.createCompatibleImage(w, h, transparency);
+
+        int type = (transparency == Transparency.OPAQUE) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE;
+        return new BufferedImage(w, h, type);
+    }
+
+    /**
+     * Standalone copy of src in the screen's format (src itself if it already is one).
+     * Also use it for sub-images, so each frame gets its own managed raster.
+     */
+    public static BufferedImage toCompatible(BufferedImage src) {
+        if (src == null) return null;
+
+        GraphicsConfiguration gc = screenConfig();
+        int transparency = src.getTransparency();
+
+        boolean sameFormat = (gc != null)
+                ? src.getColorModel().equals(gc.getColorModel(transparency))
+                : src.getType() == ((transparency == Transparency.OPAQUE)
+                ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+        // Sub-images share their parent's raster, so they always get their own copy
+        if (sameFormat && src.getRaster().getParent() == null) return src;
+
+        BufferedImage dst = createCompatible(src.getWidth(), src.getHeight(), transparency);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.drawImage(src, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+}
@@ -0,0 +1,208 @@
+package main.java.game.gfx;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Scales the fixed-size virtual frame onto an output surface of any size, letterboxing the rest.
+ * <p>
+ * INTEGER picks the largest whole scale that fits (crisp pixels), FIT the largest fractional one,
+ * STRETCH fills the output ignoring aspect. Layout is recomputed only when the output size changes.
+ * <p>
+ * Two upscale paths:
+ * <ul>
+ *     <li>Direct: one nearest-neighbor drawImage. With an accelerated (VolatileImage) frame this is a
+ *     texture blit on the GPU.</li>
+ *     <li>Pre-scaled: for software frames (INT_RGB BufferedImage) at a whole scale > 1, pixels are
+ *     replicated into a pre-sized INT_RGB target with array fills/copies, which is then blitted 1:1.
+ *     Much cheaper than Java2D's general scaling loop when nothing is accelerated.</li>
+ * </ul>
+ * The time spent in {@link #present} is accumulated separately (see {@link #averageMillis()}).
+ * For accelerated frames it only covers queuing the blit, not the GPU work.
+ */
+public class Scaler {
+
+    public enum Mode {INTEGER, FIT, STRETCH}
+
+    private static final Color BAR_COLOR = Color.BLACK;
+
+    private final int srcW, srcH;
+    private final Mode mode;
+
+    // Current layout (for outW x outH)
+    private int outW = -1, outH = -1;
+    private int dstX, dstY, dstW, dstH;
+    private int scale;   // whole scale factor, 0 when fractional
+
+    // Pre-scaled software target (allocated for the current whole scale)
+    private BufferedImage prescaled;
+    private int[] prescaledPixels;
+
+    // Cost of the scale step
+    private long nanos;
+    private int samples;
+
+    public Scaler(int srcW, int srcH, Mode mode) {
+        this.srcW = srcW;
+        this.srcH = srcH;
+        this.mode = mode;
+    }
+
+    /**
+     * Clears the letterbox bars and draws frame (srcW x srcH) scaled into an outW x outH surface.
+     */
+    public void present(Graphics2D g, Image frame, int outW, int outH) {
+        long t0 = System.nanoTime();
+        layout(outW, outH);
+
+        drawBars(g);
+
+        if (scale > 1 && isIntRgb(frame)) {
+            upscale((BufferedImage) frame);
+            g.drawImage(prescaled, dstX, dstY, null);
+        } else if (scale == 1) {
+            g.drawImage(frame, dstX, dstY, null);
+        } else {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.drawImage(frame, dstX, dstY, dstX + dstW, dstY + dstH, 0, 0, srcW, srcH, null);
+        }
+
+        nanos += System.nanoTime() - t0;
+        samples++;
+    }
+
+    /**
+     * Average cost of {@link #present} since the last reset, in ms.
+     */
+    public double averageMillis() {
+        return (samples == 0) ? 0.0 : nanos / 1e6 / samples;
+    }
+
+    public int samples() {
+        return samples;
+    }
+
+    public void resetStats() {
+        nanos = 0;
+        samples = 0;
+    }
+
+    /**
+     * Whole scale factor of the current layout, 0 when fractional.
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    // ---- Internals ----
+
+    private void layout(int w, int h) {
+        if (w == outW && h == outH) return;
+        outW = w;
+        outH = h;
+
+        double fit = Math.min(w / (double) srcW, h / (double) srcH);
+        int whole = (int) fit;
+
+        if (mode == Mode.STRETCH) {
+            dstW = w;
+            dstH = h;
+            scale = (w == srcW * whole && h == srcH * whole) ? whole : 0;
+        } else if (mode == Mode.INTEGER && whole >= 1) {
+            dstW = srcW * whole;
+            dstH = srcH * whole;
+            scale = whole;
+        } else {
+            // FIT, or a window smaller than the frame: fractional
+            dstW = Math.max(1, (int) (srcW * fit));
+            dstH = Math.max(1, (int) (srcH * fit));
+            scale = (dstW == srcW * whole && dstH == srcH * whole) ? whole : 0;
+        }
+        dstX = (w - dstW) / 2;
+        dstY = (h - dstH) / 2;
+
+        if (scale > 1 && (prescaled == null || prescaled.getWidth() != dstW || prescaled.getHeight() != dstH)) {
+            prescaled = new BufferedImage(dstW, dstH, BufferedImage.TYPE_INT_RGB);
+            // Rewritten every frame: grabbing the array (un-managing it) costs nothing here
+            prescaledPixels = ((DataBufferInt) prescaled.getRaster().getDataBuffer()).getData();
+        }
+    }
+
+    private void drawBars(Graphics2D g) {
+        if (dstX == 0 && dstY == 0 && dstW == outW && dstH == outH) return;
+
+        g.setColor(BAR_COLOR);
+        if (dstY > 0) {
+            g.fillRect(0, 0, outW, dstY);
+            g.fillRect(0, dstY + dstH, outW, outH - dstY - dstH);
+        }
+        if (dstX > 0) {
+            g.fillRect(0, dstY, dstX, dstH);
+            g.fillRect(dstX + dstW, dstY, outW - dstX - dstW, dstH);
+        }
+    }
+
+    private boolean isIntRgb(Image frame) {
+        return frame instanceof BufferedImage bi
+                && bi.getType() == BufferedImage.TYPE_INT_RGB
+                && bi.getWidth() == srcW && bi.getHeight() == srcH;
+    }
+
+    // Nearest-neighbor whole-scale upscale: widen each source row once, then copy it down scale - 1 times
+    private void upscale(BufferedImage frame) {
+        int[] src = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+        int[] dst = prescaledPixels;
+        int s = scale;
+        int outStride = srcW * s;
+
+        int di = 0;
+        for (int y = 0; y < srcH; y++) {
+            int rowStart = di;
+            int si = y * srcW;
+            int end = si + srcW;
+
+            // Common scales unrolled: the generic inner loop is several times slower
+            switch (s) {
+                case 2 -> {
+                    for (int i = si; i < end; i++, di += 2) {
+                        int p = src[i];
+                        dst[di] = p;
+                        dst[di + 1] = p;
+                    }
+                }
+                case 3 -> {
+                    for (int i = si; i < end; i++, di += 3) {
+                        int p = src[i];
+                        dst[di] = p;
+                        dst[di + 1] = p;
+                        dst[di + 2] = p;
+                    }
+                }
+                case 4 -> {
+                    for (int i = si; i < end; i++, di += 4) {
+                        int p = src[i];
+                        dst[di] = p;
+                        dst[di + 1] = p;
+                        dst[di + 2] = p;
+                        dst[di + 3] = p;
+                    }
+                }
+                default -> {
+                    for (int i = si; i < end; i++) {
+                        int p = src[i];
+                        for (int k = 0; k < s; k++) dst[di++] = p;
+                    }
+                }
+            }
+
+            for (int k = 1; k < s; k++) {
+                System.arraycopy(dst, rowStart, dst, di, outStride);
+                di += outStride;
+            }
+        }
+    }
+}
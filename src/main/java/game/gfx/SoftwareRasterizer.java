@@ -0,0 +1,349 @@
+package main.java.game.gfx;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Draws a {@link SpriteBatch} straight into the pixels of an INT_RGB image, for when Java2D has no
+ * accelerated pipeline and would run its generic software loops anyway.
+ * <p>
+ * The target is cut into horizontal bands rendered in parallel on a fork-join pool; each band replays
+ * every command clipped to its rows. Opaque spans are row copies (System.arraycopy), translucent
+ * pixels are blended with the same 8-bit math as Java2D's SrcOver loops, so frames are pixel-identical
+ * to {@link SpriteBatch#flush(java.awt.Graphics2D)}.
+ * <p>
+ * Handles 1:1 draws (optionally flipped) and stretched 1x1 swatches of INT_RGB / INT_ARGB / INT_ARGB_PRE
+ * images; a batch with anything else is left for Java2D (see {@link SpriteBatch#flush(SoftwareRasterizer, int)}).
+ * Source pixel arrays are read directly, which un-manages those images: only use it when nothing is accelerated.
+ */
+public class SoftwareRasterizer {
+
+    // Bands at least this tall, so small frames don't split into more tasks than they're worth
+    private static final int MIN_BAND_ROWS = 16;
+
+    // Source formats
+    private static final int OPAQUE = 0;     // INT_RGB
+    private static final int STRAIGHT = 1;   // INT_ARGB
+    private static final int PREMUL = 2;     // INT_ARGB_PRE
+
+    private final int[] dst;
+    private final int width, height;
+
+    private final ForkJoinPool pool;
+    private final Band[] bands;
+    private final RecursiveAction allBands = new RecursiveAction() {
+        @Override
+        protected void compute() {
+            ForkJoinTask.invokeAll(bands);
+        }
+    };
+
+    // Per batch image id: pixels, first pixel offset, scanline stride, size, format; resolvedFor guards reused ids
+    private Image[] resolvedFor = new Image[0];
+    private int resolvedCount;   // slots [0, resolvedCount) may hold a frame's images
+    private int[][] srcPixels = new int[0][];
+    private int[] srcOffset = new int[0], srcStride = new int[0];
+    private int[] srcWidth = new int[0], srcHeight = new int[0];
+    private int[] srcFormat = new int[0];
+
+    // Frame being drawn (set before the bands run, read-only while they do)
+    private SpriteBatch batch;
+    private int clearRgb;
+
+    /**
+     * @param target  INT_RGB image drawn into (its pixel array is written directly)
+     * @param threads worker threads (and roughly twice as many bands)
+     */
+    public SoftwareRasterizer(BufferedImage target, int threads) {
+        if (target.getType() != BufferedImage.TYPE_INT_RGB) {
+            throw new IllegalArgumentException("Target must be TYPE_INT_RGB, got type " + target.getType());
+        }
+        this.dst = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+        this.width = target.getWidth();
+        this.height = target.getHeight();
+
+        int n = Math.max(1, threads);
+        int count = Math.max(1, Math.min(n * 2, height / MIN_BAND_ROWS));
+        this.pool = new ForkJoinPool(n);
+        this.bands = new Band[count];
+        for (int i = 0; i < count; i++) {
+            bands[i] = new Band(height * i / count, height * (i + 1) / count);
+        }
+    }
+
+    public int bandCount() {
+        return bands.length;
+    }
+
+    /**
+     * Stops the worker threads. The rasterizer can't be used afterward.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * True if every queued command of batch (already sorted) can be drawn here.
+     */
+    boolean supports(SpriteBatch batch) {
+        for (int k = 0; k < batch.count; k++) {
+            int i = (int) batch.keys[k];
+            int id = batch.imageId[i];
+            boolean ok = resolve(id, batch.images[id]);
+
+            if (ok) {
+                int sw = batch.srcW[i], sh = batch.srcH[i];
+                boolean oneToOne = (sw == batch.dstW[i] && sh == batch.dstH[i]);
+                boolean swatch = (sw == 1 && sh == 1);
+                int sx = batch.srcX[i], sy = batch.srcY[i];
+                ok = (oneToOne || swatch)
+                        && sx >= 0 && sy >= 0 && sx + sw <= srcWidth[id] && sy + sh <= srcHeight[id];
+            }
+            if (!ok) {
+                releaseImages();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clears the target to clearRgb and draws batch's sorted commands, one band per task.
+     */
+    void render(SpriteBatch batch, int clearRgb) {
+        this.batch = batch;
+        this.clearRgb = clearRgb & 0xFFFFFF;
+        try {
+            if (bands.length == 1) {
+                bands[0].compute();
+            } else {
+                // Tasks are reused every frame
+                for (Band b : bands) b.reinitialize();
+                allBands.reinitialize();
+                pool.invoke(allBands);
+            }
+        } finally {
+            this.batch = null;
+            releaseImages();
+        }
+    }
+
+    // ---- Internals ----
+
+    // Batch ids only last a frame: don't keep its images (or their pixels) reachable after it
+    private void releaseImages() {
+        Arrays.fill(resolvedFor, 0, resolvedCount, null);
+        Arrays.fill(srcPixels, 0, resolvedCount, null);
+        resolvedCount = 0;
+    }
+
+    // Looks up (once per image per frame) the pixel array behind a batch image id; false for unsupported formats
+    private boolean resolve(int id, Image img) {
+        if (id >= resolvedFor.length) {
+            int n = Math.max(64, id * 2);
+            resolvedFor = Arrays.copyOf(resolvedFor, n);
+            srcPixels = Arrays.copyOf(srcPixels, n);
+            srcOffset = Arrays.copyOf(srcOffset, n);
+            srcStride = Arrays.copyOf(srcStride, n);
+            srcWidth = Arrays.copyOf(srcWidth, n);
+            srcHeight = Arrays.copyOf(srcHeight, n);
+            srcFormat = Arrays.copyOf(srcFormat, n);
+        }
+        if (resolvedFor[id] == img) return true;
+
+        if (!(img instanceof BufferedImage bi)) return false;
+        int format = switch (bi.getType()) {
+            case BufferedImage.TYPE_INT_RGB -> OPAQUE;
+            case BufferedImage.TYPE_INT_ARGB -> STRAIGHT;
+            case BufferedImage.TYPE_INT_ARGB_PRE -> PREMUL;
+            default -> -1;
+        };
+        if (format < 0) return false;
+
+        Raster raster = bi.getRaster();
+        if (!(raster.getDataBuffer() instanceof DataBufferInt db)
+                || !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel sm)) {
+            return false;
+        }
+
+        srcPixels[id] = db.getData();
+        srcOffset[id] = db.getOffset()
+                + sm.getOffset(-raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY());
+        srcStride[id] = sm.getScanlineStride();
+        srcWidth[id] = bi.getWidth();
+        srcHeight[id] = bi.getHeight();
+        srcFormat[id] = format;
+        resolvedFor[id] = img;
+        resolvedCount = Math.max(resolvedCount, id + 1);
+        return true;
+    }
+
+    // Java2D's mul8table entry, round(a * b / 255): the product stays below 2^32, so the unsigned shift is exact
+    private static int mul8(int a, int b) {
+        return (a * b * 0x10101 + (1 << 23)) >>> 24;
+    }
+
+    /**
+     * Rows [y0, y1) of the target.
+     */
+    @SuppressWarnings("serial")   // never serialized
+    private final class Band extends RecursiveAction {
+
+        private final int y0, y1;
+
+        Band(int y0, int y1) {
+            this.y0 = y0;
+            this.y1 = y1;
+        }
+
+        @Override
+        protected void compute() {
+            Arrays.fill(dst, y0 * width, y1 * width, clearRgb);
+
+            SpriteBatch b = batch;
+            for (int k = 0; k < b.count; k++) {
+                drawCommand(b, (int) b.keys[k]);
+            }
+        }
+
+        private void drawCommand(SpriteBatch b, int i) {
+            int dx = b.dstX[i], dy = b.dstY[i];
+            int dw = b.dstW[i], dh = b.dstH[i];
+
+            int cx0 = Math.max(dx, 0), cx1 = Math.min(dx + dw, width);
+            int cy0 = Math.max(dy, y0), cy1 = Math.min(dy + dh, y1);
+            if (cx0 >= cx1 || cy0 >= cy1) return;
+
+            int id = b.imageId[i];
+            int[] src = srcPixels[id];
+            int stride = srcStride[id];
+            int format = srcFormat[id];
+
+            boolean flipH = (b.flags[i] & SpriteBatch.FLIP_H) != 0;
+            boolean flipV = (b.flags[i] & SpriteBatch.FLIP_V) != 0;
+            boolean swatch = (b.srcW[i] == 1 && b.srcH[i] == 1 && (dw != 1 || dh != 1));
+            int ea = b.alpha[i];
+
+            // Java2D draws flipped / stretched images through an INT_ARGB_PRE intermediate,
+            // so straight alpha is premultiplied before blending there
+            boolean premul = (format == PREMUL) || (format == STRAIGHT && (flipH || flipV || swatch));
+
+            int n = cx1 - cx0;
+            for (int y = cy0; y < cy1; y++) {
+                int row = y - dy;
+                int sy = b.srcY[i] + (swatch ? 0 : (flipV ? dh - 1 - row : row));
+                int srcRow = srcOffset[id] + sy * stride + b.srcX[i];
+                int di = y * width + cx0;
+
+                if (swatch) {
+                    spanSolid(src[srcRow], format, premul, ea, di, n);
+                    continue;
+                }
+
+                // Source column of the first pixel and step along the row
+                int col = cx0 - dx;
+                int si = flipH ? srcRow + dw - 1 - col : srcRow + col;
+                int step = flipH ? -1 : 1;
+
+                if (format == OPAQUE && ea == 255) {
+                    if (!flipH) {
+                        System.arraycopy(src, si, dst, di, n);
+                    } else {
+                        for (int x = 0; x < n; x++, si--) dst[di + x] = src[si] & 0xFFFFFF;
+                    }
+                    continue;
+                }
+
+                if (ea == 255 && !flipH) {
+                    spanTranslucent(src, si, di, n, format);
+                    continue;
+                }
+
+                for (int x = 0; x < n; x++, si += step) {
+                    blend(src[si], format, premul, ea, di + x);
+                }
+            }
+        }
+
+        // n pixels at full extra alpha: runs of opaque pixels are copied, transparent ones skipped,
+        // only the edges in between are blended (most tile and sprite pixels are one or the other)
+        private void spanTranslucent(int[] src, int si, int di, int n, int format) {
+            int[] d = dst;
+            int end = si + n;
+            while (si < end) {
+                int sa = src[si] >>> 24;
+                if (sa == 255) {
+                    int run = si + 1;
+                    while (run < end && (src[run] >>> 24) == 255) run++;
+                    System.arraycopy(src, si, d, di, run - si);
+                    di += run - si;
+                    si = run;
+                    continue;
+                }
+                if (sa != 0) {
+                    // blend() at extra alpha 255: only straight color is scaled by its alpha
+                    int p = src[si];
+                    int sr = (p >> 16) & 0xFF, sg = (p >> 8) & 0xFF, sb = p & 0xFF;
+                    if (format == STRAIGHT) {
+                        sr = mul8(sa, sr);
+                        sg = mul8(sa, sg);
+                        sb = mul8(sa, sb);
+                    }
+                    int f = 255 - sa;
+                    int q = d[di];
+                    d[di] = ((sr + mul8(f, (q >> 16) & 0xFF)) << 16)
+                            | ((sg + mul8(f, (q >> 8) & 0xFF)) << 8)
+                            | (sb + mul8(f, q & 0xFF));
+                }
+                si++;
+                di++;
+            }
+        }
+
+        // n pixels of one source color
+        private void spanSolid(int p, int format, boolean premul, int ea, int di, int n) {
+            int sa = (format == OPAQUE) ? 255 : p >>> 24;
+            if (mul8(ea, sa) == 255) {
+                Arrays.fill(dst, di, di + n, p & 0xFFFFFF);
+                return;
+            }
+            for (int x = 0; x < n; x++) blend(p, format, premul, ea, di + x);
+        }
+
+        // SrcOver of source pixel p at extra alpha ea onto dst[di]
+        private void blend(int p, int format, boolean premul, int ea, int di) {
+            int sa = (format == OPAQUE) ? 255 : p >>> 24;
+            if (sa == 0) return;
+            int sr = (p >> 16) & 0xFF, sg = (p >> 8) & 0xFF, sb = p & 0xFF;
+
+            if (format == STRAIGHT && premul && sa < 255) {
+                sr = mul8(sa, sr);
+                sg = mul8(sa, sg);
+                sb = mul8(sa, sb);
+            }
+
+            int a = mul8(ea, sa);
+            if (a == 0) return;
+            if (a == 255) {
+                dst[di] = (sr << 16) | (sg << 8) | sb;
+                return;
+            }
+
+            // Premultiplied color only takes the extra alpha; straight color takes the combined one
+            int srcF = premul ? ea : a;
+            int dstF = 255 - a;
+            int d = dst[di];
+            int r = mul8(srcF, sr) + mul8(dstF, (d >> 16) & 0xFF);
+            int g = mul8(srcF, sg) + mul8(dstF, (d >> 8) & 0xFF);
+            int bl = mul8(srcF, sb) + mul8(dstF, d & 0xFF);
+            dst[di] = (r << 16) | (g << 8) | bl;
+        }
+    }
+}
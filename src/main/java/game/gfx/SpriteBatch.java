@@ -0,0 +1,280 @@
+package main.java.game.gfx;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Retained list of image draws for one frame, sorted by layer then source image before submission.
+ * <p>
+ * Commands live in parallel primitive arrays (image id, source rect, destination rect, flip, alpha)
+ * that are reused across frames; they only grow, so a steady frame allocates nothing. {@link #flush}
+ * radix-sorts them by (layer, image, submission order) and draws them with the composite changed only
+ * when alpha does: no transforms and no color state (solid rects are stretched {@link #swatch}es).
+ * <p>
+ * Within a layer, commands are grouped by image, so only draws that never overlap (or whose overlap
+ * order doesn't matter) may share a layer. Draws of the same image keep their submission order.
+ * Not thread-safe: one batch per rendering thread.
+ */
+public class SpriteBatch {
+
+    public static final int FLIP_H = 1;
+    public static final int FLIP_V = 2;
+
+    public static final int MAX_LAYER = (1 << 11) - 1;
+
+    // One composite per alpha level (index 255 = opaque), never allocated while drawing
+    private static final Composite[] ALPHA_COMPOSITES = new Composite[256];
+
+    static {
+        for (int a = 0; a < 256; a++) {
+            ALPHA_COMPOSITES[a] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, a / 255f);
+        }
+        ALPHA_COMPOSITES[255] = AlphaComposite.SrcOver;
+    }
+
+    // ---- Commands (package-private for SoftwareRasterizer) ----
+    int count;
+    int[] imageId = new int[0];
+    int[] srcX = new int[0], srcY = new int[0], srcW = new int[0], srcH = new int[0];
+    int[] dstX = new int[0], dstY = new int[0], dstW = new int[0], dstH = new int[0];
+    int[] flags = new int[0];
+    int[] alpha = new int[0];   // 0..255
+    long[] keys = new long[0];
+    private long[] sortScratch = new long[0];
+    private final int[] radixCounts = new int[256];
+
+    // ---- Image ids (this frame's only, so evicted caches aren't kept alive) ----
+    private final IdentityHashMap<Image, Integer> ids = new IdentityHashMap<>();
+    Image[] images = new Image[64];
+
+    // Last flush, for profiling
+    private int lastCommands;
+    private int lastCompositeChanges;
+
+    /**
+     * Starts a new frame (drops every queued command).
+     */
+    public void begin() {
+        count = 0;
+        releaseImages();
+    }
+
+    /**
+     * Whole image at (x, y), opaque, unflipped.
+     */
+    public void draw(Image img, int x, int y, int layer) {
+        draw(img, 0, 0, img.getWidth(null), img.getHeight(null), x, y, img.getWidth(null), img.getHeight(null),
+                0, 1f, layer);
+    }
+
+    /**
+     * Source rect (sx, sy, sw, sh) of img into destination rect (dx, dy, dw, dh).
+     *
+     * @param flip  {@link #FLIP_H} / {@link #FLIP_V} bits, mirroring within the destination rect
+     * @param a     opacity 0..1 (fully transparent draws are dropped)
+     * @param layer 0..{@link #MAX_LAYER}, drawn in ascending order
+     */
+    public void draw(Image img, int sx, int sy, int sw, int sh, int dx, int dy, int dw, int dh,
+                     int flip, float a, int layer) {
+        int a8 = Math.round(Math.max(0f, Math.min(1f, a)) * 255f);
+        if (a8 == 0 || img == null || dw <= 0 || dh <= 0) return;
+        if (layer < 0 || layer > MAX_LAYER) throw new IllegalArgumentException("Layer out of range: " + layer);
+
+        if (count == keys.length) grow();
+
+        int i = count++;
+        int id = idOf(img);
+        imageId[i] = id;
+        srcX[i] = sx;
+        srcY[i] = sy;
+        srcW[i] = sw;
+        srcH[i] = sh;
+        dstX[i] = dx;
+        dstY[i] = dy;
+        dstW[i] = dw;
+        dstH[i] = dh;
+        flags[i] = flip;
+        alpha[i] = a8;
+
+        // layer | image | submission order (sorting on it keeps same-image draws stable)
+        keys[i] = ((long) layer << 52) | ((long) id << 32) | i;
+    }
+
+    /**
+     * Solid rect in a swatch's color (see {@link #swatch(Color)}).
+     */
+    public void fillRect(BufferedImage swatch, int x, int y, int w, int h, int layer) {
+        draw(swatch, 0, 0, 1, 1, x, y, w, h, 0, 1f, layer);
+    }
+
+    /**
+     * Same pixels as Graphics.drawRect(x, y, w, h): a one pixel outline covering w + 1 by h + 1.
+     */
+    public void outlineRect(BufferedImage swatch, int x, int y, int w, int h, int layer) {
+        fillRect(swatch, x, y, w + 1, 1, layer);
+        if (h > 0) fillRect(swatch, x, y + h, w + 1, 1, layer);
+        if (h > 1) {
+            fillRect(swatch, x, y + 1, 1, h - 1, layer);
+            fillRect(swatch, x + w, y + 1, 1, h - 1, layer);
+        }
+    }
+
+    /**
+     * Sorts the queued commands and draws them into g. The batch is empty afterward.
+     */
+    public void flush(Graphics2D g) {
+        lastCommands = count;
+        lastCompositeChanges = 0;
+        if (count == 0) return;
+
+        sortKeys();
+
+        Composite old = g.getComposite();
+        int currentAlpha = -1;
+
+        for (int k = 0; k < count; k++) {
+            int i = (int) keys[k];   // low 32 bits: command index
+
+            if (alpha[i] != currentAlpha) {
+                currentAlpha = alpha[i];
+                g.setComposite(ALPHA_COMPOSITES[currentAlpha]);
+                lastCompositeChanges++;
+            }
+
+            int dx1 = dstX[i], dy1 = dstY[i];
+            int dx2 = dx1 + dstW[i], dy2 = dy1 + dstH[i];
+            if ((flags[i] & FLIP_H) != 0) {
+                int t = dx1;
+                dx1 = dx2;
+                dx2 = t;
+            }
+            if ((flags[i] & FLIP_V) != 0) {
+                int t = dy1;
+                dy1 = dy2;
+                dy2 = t;
+            }
+
+            int sx = srcX[i], sy = srcY[i];
+            g.drawImage(images[imageId[i]], dx1, dy1, dx2, dy2, sx, sy, sx + srcW[i], sy + srcH[i], null);
+        }
+
+        g.setComposite(old);
+        count = 0;
+        releaseImages();
+    }
+
+    /**
+     * Sorts the queued commands and draws them with raster, clearing its target to clearRgb first.
+     * The batch is empty afterward. False (target untouched, commands kept for {@link #flush(Graphics2D)})
+     * if a command is something the rasterizer can't draw.
+     */
+    public boolean flush(SoftwareRasterizer raster, int clearRgb) {
+        lastCommands = count;
+        lastCompositeChanges = 0;
+        if (count > 0) {
+            sortKeys();
+            if (!raster.supports(this)) return false;
+        }
+
+        raster.render(this, clearRgb);
+        count = 0;
+        releaseImages();
+        return true;
+    }
+
+    public int lastCommandCount() {
+        return lastCommands;
+    }
+
+    public int lastCompositeChanges() {
+        return lastCompositeChanges;
+    }
+
+    /**
+     * 1x1 image of one color, for {@link #fillRect} / {@link #outlineRect}. Create once and keep it.
+     */
+    public static BufferedImage swatch(Color color) {
+        // Translucent swatches stay non-premultiplied: a premultiplied pixel loses precision
+        // and blends off by one from fillRect
+        if (color.getAlpha() == 255) {
+            BufferedImage img = Images.createCompatible(1, 1, Transparency.OPAQUE);
+            img.setRGB(0, 0, color.getRGB());
+            return img;
+        }
+        BufferedImage img = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        img.setRGB(0, 0, color.getRGB());
+        return img;
+    }
+
+    // ---- Internals ----
+
+    // Drops the id table (clearing an IdentityHashMap keeps its table, so re-adding allocates nothing)
+    private void releaseImages() {
+        Arrays.fill(images, 0, ids.size(), null);
+        ids.clear();
+    }
+
+    private int idOf(Image img) {
+        Integer id = ids.get(img);
+        if (id != null) return id;
+
+        int next = ids.size();
+        if (next == images.length) images = Arrays.copyOf(images, next * 2);
+        images[next] = img;
+        ids.put(img, next);
+        return next;
+    }
+
+    private void grow() {
+        int n = Math.max(256, keys.length * 2);
+        imageId = Arrays.copyOf(imageId, n);
+        srcX = Arrays.copyOf(srcX, n);
+        srcY = Arrays.copyOf(srcY, n);
+        srcW = Arrays.copyOf(srcW, n);
+        srcH = Arrays.copyOf(srcH, n);
+        dstX = Arrays.copyOf(dstX, n);
+        dstY = Arrays.copyOf(dstY, n);
+        dstW = Arrays.copyOf(dstW, n);
+        dstH = Arrays.copyOf(dstH, n);
+        flags = Arrays.copyOf(flags, n);
+        alpha = Arrays.copyOf(alpha, n);
+        keys = Arrays.copyOf(keys, n);
+        sortScratch = new long[n];
+    }
+
+    // LSD radix sort on 8-bit digits into the reused scratch array (Arrays.sort may allocate on
+    // nearly sorted input). Digits that are the same for every key are skipped.
+    private void sortKeys() {
+        long[] a = keys;
+        long[] b = sortScratch;
+        int[] counts = radixCounts;
+
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < count; i++) counts[(int) (a[i] >>> shift) & 0xFF]++;
+            if (counts[(int) (a[0] >>> shift) & 0xFF] == count) continue;
+
+            int sum = 0;
+            for (int d = 0; d < 256; d++) {
+                int c = counts[d];
+                counts[d] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < count; i++) b[counts[(int) (a[i] >>> shift) & 0xFF]++] = a[i];
+
+            long[] t = a;
+            a = b;
+            b = t;
+        }
+
+        keys = a;
+        sortScratch = b;
+    }
+}
@@ -13,9 +13,9 @@ public class SpriteSheet {
 
     public SpriteSheet(String resourcePath, int tileW, int tileH) {
         try {
-            this.img = ImageIO.read(Objects.requireNonNull(
+            this.img = Images.toCompatible(ImageIO.read(Objects.requireNonNull(
                     SpriteSheet.class.getResourceAsStream(resourcePath)
-            ));
+            )));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
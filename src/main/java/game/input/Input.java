@@ -5,7 +5,7 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 
 
-public class Input extends KeyAdapter {
+public class Input extends KeyAdapter implements InputSource {
     private boolean up, down, left, right, attack, guard, restart, jumpDown, jumpPrev;
 
 
@@ -38,14 +38,17 @@ public class Input extends KeyAdapter {
         return up;
     }
 
+    @Override
     public boolean isDown() {
         return down;
     }
 
+    @Override
     public boolean isLeft() {
         return left;
     }
 
+    @Override
     public boolean isRight() {
         return right;
     }
@@ -58,6 +61,7 @@ public class Input extends KeyAdapter {
         return guard;
     }
 
+    @Override
     public boolean isRestart() {
         return restart;
     }
@@ -66,14 +70,17 @@ public class Input extends KeyAdapter {
         return jumpDown;
     }
 
+    @Override
     public boolean isJumpPressed() {
         return jumpDown && !jumpPrev;
     }
 
+    @Override
     public boolean isJumpReleased() {
         return !jumpDown && jumpPrev;
     }
 
+    @Override
     public void endFrame() { // Tells Input when the jump frame ends
         jumpPrev = jumpDown;
     }
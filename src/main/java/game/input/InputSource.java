@@ -0,0 +1,23 @@
+package main.java.game.input;
+
+/**
+ * What the simulation reads from the player's controls each tick.
+ * {@link Input} feeds it from the keyboard; {@link VirtualInput} from code (headless runs, replays).
+ */
+public interface InputSource {
+
+    boolean isLeft();
+
+    boolean isRight();
+
+    boolean isDown();
+
+    boolean isRestart();
+
+    boolean isJumpPressed();
+
+    boolean isJumpReleased();
+
+    // Called once at the end of every tick (jump edge tracking)
+    void endFrame();
+}
@@ -0,0 +1,46 @@
+package main.java.game.input;
+
+/**
+ * Input driven from code: set the held buttons before each tick.
+ * Jump press / release edges are derived the same way as {@link Input}.
+ */
+public class VirtualInput implements InputSource {
+    public boolean left, right, down, jump, restart;
+
+    private boolean jumpPrev;
+
+    @Override
+    public boolean isLeft() {
+        return left;
+    }
+
+    @Override
+    public boolean isRight() {
+        return right;
+    }
+
+    @Override
+    public boolean isDown() {
+        return down;
+    }
+
+    @Override
+    public boolean isRestart() {
+        return restart;
+    }
+
+    @Override
+    public boolean isJumpPressed() {
+        return jump && !jumpPrev;
+    }
+
+    @Override
+    public boolean isJumpReleased() {
+        return !jump && jumpPrev;
+    }
+
+    @Override
+    public void endFrame() {
+        jumpPrev = jump;
+    }
+}
@@ -0,0 +1,131 @@
+package main.java.game.map;
+
+import main.java.game.gfx.Camera;
+import main.java.game.gfx.Images;
+import main.java.game.gfx.SpriteBatch;
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * A tile layer drawn in its own pass behind the chunked layers, with Tiled's parallax and repeat settings.
+ * <p>
+ * The layer is baked once into a single strip image: one horizontal period of its tile pattern (the whole
+ * layer when it doesn't repeat). A frame then costs a few blits of that strip, however large the view.
+ * With parallax 1 and no repeat it draws exactly where the tiles would.
+ */
+public class BackgroundLayer {
+
+    public final int[] data;
+
+    // Tiled "parallaxx" / "parallaxy": 1 = moves with the map, 0 = fixed to the screen
+    public final float parallaxX, parallaxY;
+
+    // Tiled "repeatx" / "repeaty": tile the layer endlessly along that axis
+    public final boolean repeatX, repeatY;
+
+    private BufferedImage strip;   // baked on first draw
+
+    public BackgroundLayer(int[] data, float parallaxX, float parallaxY, boolean repeatX, boolean repeatY) {
+        this.data = data;
+        this.parallaxX = parallaxX;
+        this.parallaxY = parallaxY;
+        this.repeatX = repeatX;
+        this.repeatY = repeatY;
+    }
+
+    /**
+     * Drops the baked strip (call after editing the layer or the map's tilesets).
+     */
+    void invalidate() {
+        strip = null;
+    }
+
+    void draw(Graphics2D g, Camera camera, TiledMap map) {
+        blitStrips(g, null, 0, camera, map);
+    }
+
+    void submit(SpriteBatch batch, int layer, Camera camera, TiledMap map) {
+        blitStrips(null, batch, layer, camera, map);
+    }
+
+    // Into g, or queued into batch on layer when g is null
+    private void blitStrips(Graphics2D g, SpriteBatch batch, int layer, Camera camera, TiledMap map) {
+        if (strip == null) strip = bake(map);
+
+        int stripW = strip.getWidth();
+        int stripH = strip.getHeight();
+        int layerW = map.getPixelWidth();
+
+        // Screen position of the layer's top-left corner
+        int ox = -(int) (camera.x * parallaxX);
+        int oy = -(int) (camera.y * parallaxY);
+
+        int x0, x1, y0, y1;
+        if (repeatX) {
+            x0 = firstRepeat(ox, stripW);
+            x1 = camera.viewW;
+        } else {
+            x0 = ox;
+            x1 = Math.min(ox + layerW, camera.viewW);
+        }
+        if (repeatY) {
+            y0 = firstRepeat(oy, stripH);
+            y1 = camera.viewH;
+        } else {
+            y0 = oy;
+            y1 = Math.min(oy + stripH, camera.viewH);
+        }
+
+        for (int sy = y0; sy < y1; sy += stripH) {
+            if (sy + stripH <= 0) continue;
+
+            for (int sx = x0; sx < x1; sx += stripW) {
+                int w = Math.min(stripW, x1 - sx);
+                if (sx + w <= 0) continue;
+
+                if (g != null) g.drawImage(strip, sx, sy, sx + w, sy + stripH, 0, 0, w, stripH, null);
+                else batch.draw(strip, 0, 0, w, stripH, sx, sy, w, stripH, 0, 1f, layer);
+            }
+        }
+    }
+
+    // Left / top edge of the first repeat that covers screen coordinate 0
+    private static int firstRepeat(int origin, int period) {
+        int p = Math.floorMod(origin, period);
+        return (p > 0) ? p - period : 0;
+    }
+
+    private BufferedImage bake(TiledMap map) {
+        int periodTiles = horizontalPeriod(map.width, map.height);
+
+        BufferedImage img = Images.createCompatible(
+                periodTiles * map.tileWidth, map.height * map.tileHeight, Transparency.TRANSLUCENT);
+        Graphics2D g = img.createGraphics();
+        try {
+            map.drawLayerTiles(g, data, 0, 0, periodTiles, map.height, 0, 0);
+        } finally {
+            g.dispose();
+        }
+        return img;
+    }
+
+    // Smallest column count p such that every row repeats every p tiles (the layer width when it doesn't)
+    private int horizontalPeriod(int width, int height) {
+        for (int p = 1; p < width; p++) {
+            if (repeatsEvery(p, width, height)) return p;
+        }
+        return width;
+    }
+
+    private boolean repeatsEvery(int p, int width, int height) {
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = p; x < width; x++) {
+                if (data[row + x] != data[row + x - p]) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,100 @@
+package main.java.game.map;
+
+import main.java.game.gfx.Camera;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Microbenchmark: per-tile tileset binary search + div/mod (old draw loop) vs the flat gid table,
+ * over every cell of every render layer of map0.json. Also times full-map drawTiles frames.
+ * <p>
+ * Usage: GidLookupBenchmark [map resource] [rounds]
+ */
+public class GidLookupBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int PASSES_PER_ROUND = 2_000;
+    private static final int FRAMES_PER_ROUND = 200;
+
+    public static void main(String[] args) {
+        String res = (args.length > 0) ? args[0] : "/main/assets/maps/map0.json";
+        int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+
+        TiledMap map = TiledLoader.loadJsonMap(res);
+        map.buildGidTable();
+
+        long cells = 0;
+        for (int[] layer : map.layers) cells += layer.length;
+
+        System.out.println(res + ": " + map.layers.size() + " render layers, " + cells + " cells per pass");
+
+        long sink = 0;
+        for (int r = -WARMUP_ROUNDS; r < rounds; r++) {
+            long t0 = System.nanoTime();
+            for (int p = 0; p < PASSES_PER_ROUND; p++) sink += searchPass(map);
+            long t1 = System.nanoTime();
+            for (int p = 0; p < PASSES_PER_ROUND; p++) sink += tablePass(map);
+            long t2 = System.nanoTime();
+
+            if (r >= 0) {
+                double n = (double) cells * PASSES_PER_ROUND;
+                System.out.printf("round %d: binary search %.2f ns/tile, table %.2f ns/tile%n",
+                        r, (t1 - t0) / n, (t2 - t1) / n);
+            }
+        }
+
+        // Whole frames (table path), full map onto an ARGB buffer
+        BufferedImage frame = new BufferedImage(map.getPixelWidth(), map.getPixelHeight(), BufferedImage.TYPE_INT_ARGB);
+        Camera cam = new Camera(0, 0, map.getPixelWidth(), map.getPixelHeight(), map.getPixelWidth(), map.getPixelHeight());
+        for (int r = -WARMUP_ROUNDS; r < rounds; r++) {
+            Graphics2D g = frame.createGraphics();
+            long t0 = System.nanoTime();
+            for (int f = 0; f < FRAMES_PER_ROUND; f++) {
+                map.drawTiles(g, 0, 0, map.width, map.height, (int) cam.x, (int) cam.y);
+            }
+            long t1 = System.nanoTime();
+            g.dispose();
+
+            if (r >= 0) System.out.printf("round %d: drawTiles %.3f ms/frame%n", r, (t1 - t0) / 1e6 / FRAMES_PER_ROUND);
+        }
+
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    // What the draw loop used to do per tile
+    private static long searchPass(TiledMap map) {
+        long sum = 0;
+        for (int[] layer : map.layers) {
+            for (int raw : layer) {
+                int gid = raw & 0x1FFFFFFF;
+                if (gid == 0) continue;
+
+                TiledMap.Tileset ts = map.tilesetForGid(gid);
+                if (ts == null || ts.tilesetImage() == null) continue;
+
+                int localId = gid - ts.firstGid();
+                sum += (localId % ts.columns()) * map.tileWidth + (localId / ts.columns()) * map.tileHeight;
+            }
+        }
+        return sum;
+    }
+
+    // What it does now
+    private static long tablePass(TiledMap map) {
+        BufferedImage[] images = map.gidImage;
+        int[] srcX = map.gidSrcX;
+        int[] srcY = map.gidSrcY;
+
+        long sum = 0;
+        for (int[] layer : map.layers) {
+            for (int raw : layer) {
+                int gid = raw & 0x1FFFFFFF;
+                if (gid == 0 || images[gid] == null) continue;
+
+                sum += srcX[gid] + srcY[gid];
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,139 @@
+package main.java.game.map;
+
+import main.java.game.gfx.Camera;
+import main.java.game.gfx.Images;
+import main.java.game.gfx.SpriteBatch;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Pre-rendered chunks of a map's render layers (all layers flattened, they never change at runtime).
+ * <p>
+ * The map is cut into square chunks of ~{@link #CHUNK_PX} px (a whole number of tiles). A chunk is baked
+ * the first time the camera sees it, so a frame costs one blit per visible chunk instead of one per tile
+ * per layer. At most {@link #MAX_RESIDENT} chunks are kept; the least recently drawn one is evicted and its
+ * image reused for the next bake, so large levels have bounded memory.
+ */
+class TileChunkCache {
+
+    static final int CHUNK_PX = 256;
+
+    // 48 x 256x256 ARGB = 12 MB; a 640x360 view touches at most 4x3 chunks
+    private static final int MAX_RESIDENT = 48;
+
+    private final TiledMap map;
+
+    private final int chunkTilesX, chunkTilesY;   // tiles per chunk
+    private final int chunkW, chunkH;             // chunk size in px
+    private final int cols, rows;                 // chunks across the map
+
+    private final BufferedImage[] images;
+    private final long[] lastUsed;
+    private int resident = 0;
+    private long frame = 0;
+
+    TileChunkCache(TiledMap map) {
+        this.map = map;
+
+        chunkTilesX = Math.max(1, CHUNK_PX / map.tileWidth);
+        chunkTilesY = Math.max(1, CHUNK_PX / map.tileHeight);
+        chunkW = chunkTilesX * map.tileWidth;
+        chunkH = chunkTilesY * map.tileHeight;
+
+        cols = (map.width + chunkTilesX - 1) / chunkTilesX;
+        rows = (map.height + chunkTilesY - 1) / chunkTilesY;
+
+        images = new BufferedImage[cols * rows];
+        lastUsed = new long[cols * rows];
+    }
+
+    void draw(Graphics2D g, Camera camera) {
+        blitChunks(g, null, 0, camera);
+    }
+
+    void submit(SpriteBatch batch, int layer, Camera camera) {
+        blitChunks(null, batch, layer, camera);
+    }
+
+    // Into g, or queued into batch on layer when g is null
+    private void blitChunks(Graphics2D g, SpriteBatch batch, int layer, Camera camera) {
+        frame++;
+
+        int camX = (int) camera.x;
+        int camY = (int) camera.y;
+
+        int c0 = Math.max(0, Math.floorDiv(camX, chunkW));
+        int r0 = Math.max(0, Math.floorDiv(camY, chunkH));
+        int c1 = Math.min(cols - 1, Math.floorDiv(camX + camera.viewW - 1, chunkW));
+        int r1 = Math.min(rows - 1, Math.floorDiv(camY + camera.viewH - 1, chunkH));
+
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int i = r * cols + c;
+                BufferedImage img = images[i];
+                if (img == null) img = bake(c, r);
+
+                lastUsed[i] = frame;
+                if (g != null) g.drawImage(img, c * chunkW - camX, r * chunkH - camY, null);
+                else batch.draw(img, c * chunkW - camX, r * chunkH - camY, layer);
+            }
+        }
+    }
+
+    /**
+     * Drops every baked chunk (call after editing layers or tilesets).
+     */
+    void invalidate() {
+        for (int i = 0; i < images.length; i++) images[i] = null;
+        resident = 0;
+    }
+
+    private BufferedImage bake(int c, int r) {
+        BufferedImage img = (resident >= MAX_RESIDENT) ? evictOldest() : null;
+
+        if (img == null) {
+            img = Images.createCompatible(chunkW, chunkH, Transparency.TRANSLUCENT);
+        }
+        resident++;
+
+        Graphics2D g = img.createGraphics();
+        try {
+            // Recycled images still hold the old chunk
+            Composite old = g.getComposite();
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, chunkW, chunkH);
+            g.setComposite(old);
+
+            int tx0 = c * chunkTilesX;
+            int ty0 = r * chunkTilesY;
+            int tx1 = Math.min(map.width, tx0 + chunkTilesX);
+            int ty1 = Math.min(map.height, ty0 + chunkTilesY);
+
+            map.drawTiles(g, tx0, ty0, tx1, ty1, tx0 * map.tileWidth, ty0 * map.tileHeight);
+        } finally {
+            g.dispose();
+        }
+
+        images[r * cols + c] = img;
+        return img;
+    }
+
+    // Least recently drawn chunk gives up its image
+    private BufferedImage evictOldest() {
+        int oldest = -1;
+        for (int i = 0; i < images.length; i++) {
+            if (images[i] == null) continue;
+            if (oldest < 0 || lastUsed[i] < lastUsed[oldest]) oldest = i;
+        }
+        if (oldest < 0) return null;
+
+        BufferedImage img = images[oldest];
+        images[oldest] = null;
+        resident--;
+        return img;
+    }
+}
@@ -2,6 +2,7 @@ package main.java.game.map;
 
 import com.google.gson.*;
 import main.java.game.ResourcePathResolver;
+import main.java.game.gfx.Images;
 import main.java.game.physics.Collider;
 import main.java.game.physics.Rect;
 
@@ -19,11 +20,23 @@ public class TiledLoader {
     // default: OFF
     private static final boolean DEBUG = false;
 
+    // Print per-layer tile collider counts (per-tile / row runs / baked) for every loaded map
+    private static final boolean REPORT_TILE_COLLIDERS = false;
+
+    /**
+     * How tile collision layers are baked into rectangles.
+     * ROWS merges runs within a row; GREEDY_2D also grows each run downward into rectangles.
+     */
+    public enum TileMergeMode {ROWS, GREEDY_2D}
+
+    private static final TileMergeMode TILE_MERGE_MODE = TileMergeMode.GREEDY_2D;
+
     // Layer name conventions
     private static final String LAYER_COLLISION = "Collision";
     private static final String LAYER_ONEWAY_1 = "OneWay";
     private static final String LAYER_ONEWAY_2 = "OneWayCollision";
     private static final String LAYER_GOAL = "Gameplay";
+    private static final String LAYER_BACKGROUND = "Background";
 
     private static final String OBJ_COLLIDERS = "Colliders";
     private static final String OBJ_TRAPS_1 = "Traps";
@@ -31,6 +44,13 @@ public class TiledLoader {
     private static final String OBJ_GOAL = "Goal";
 
     public static TiledMap loadJsonMap(String resource) {
+        return loadJsonMap(resource, true);
+    }
+
+    /**
+     * @param loadImages false for headless use: tileset images are not decoded (the map cannot be drawn)
+     */
+    public static TiledMap loadJsonMap(String resource, boolean loadImages) {
         try (InputStream in = TiledLoader.class.getResourceAsStream(resource)) {
             if (in == null) throw new IllegalArgumentException("Missing resource: " + resource);
 
@@ -44,9 +64,24 @@ public class TiledLoader {
 
             TiledMap map = new TiledMap(width, height, tileW, tileH);
 
-            loadTilesets(root, resource, map);
+            loadTilesets(root, resource, map, loadImages);
             loadLayers(root, map);
 
+            if (loadImages) {
+                map.buildGidTable();
+                int variants = map.bakeTileVariants();
+                if (DEBUG) System.out.println("[TILES] " + resource + " flipped/rotated variants baked=" + variants);
+            }
+
+            if (DEBUG || REPORT_TILE_COLLIDERS) {
+                for (TiledMap.TileColliderStats st : map.tileColliderStats) {
+                    System.out.println("[TILE-COLLIDERS] " + resource + " " + st);
+                }
+            }
+
+            // Per-type collider arrays + broadphase for collision / trigger queries
+            map.bakeColliders();
+
             return map;
 
         } catch (Exception ex) {
@@ -56,7 +91,7 @@ public class TiledLoader {
 
     // ---------------- Tilesets ----------------
 
-    private static void loadTilesets(JsonObject root, String mapResource, TiledMap map) throws Exception {
+    private static void loadTilesets(JsonObject root, String mapResource, TiledMap map, boolean loadImages) throws Exception {
         JsonArray tilesets = root.getAsJsonArray("tilesets");
         if (tilesets == null) return;
 
@@ -94,10 +129,15 @@ public class TiledLoader {
 
             imagePath = ensureLeadingSlash(imagePath);
 
+            if (!loadImages) {
+                map.addTileset(new TiledMap.Tileset(firstGid, columns, null));
+                continue;
+            }
+
             BufferedImage tilesetImage;
             try (InputStream imgIn = TiledLoader.class.getResourceAsStream(imagePath)) {
                 if (imgIn == null) throw new IllegalArgumentException("Missing tileset image: " + imagePath);
-                tilesetImage = ImageIO.read(imgIn);
+                tilesetImage = Images.toCompatible(ImageIO.read(imgIn));
             }
 
             map.addTileset(new TiledMap.Tileset(firstGid, columns, tilesetImage));
@@ -138,17 +178,27 @@ public class TiledLoader {
 
         // Collision layers (not rendered)
         if (isGoalLayer(name)) {
-            addTileCollidersMergedHorizontally(map, data, Collider.Type.GOAL);
+            addTileColliders(map, data, Collider.Type.GOAL);
             return;
         }
 
         if (isSolidLayer(name)) {
-            addTileCollidersMergedHorizontally(map, data, Collider.Type.SOLID);
+            addTileColliders(map, data, Collider.Type.SOLID);
+            map.markCollisionTiles(Collider.Type.SOLID, data);
             return;
         }
 
         if (isOneWayLayer(name)) {
-            addTileCollidersMergedHorizontally(map, data, Collider.Type.ONE_WAY);
+            addTileColliders(map, data, Collider.Type.ONE_WAY);
+            map.markCollisionTiles(Collider.Type.ONE_WAY, data);
+            return;
+        }
+
+        // Background pass: only layers below every other render layer, so draw order is kept
+        if (map.layers.isEmpty() && isBackgroundLayer(lay, name)) {
+            map.backgroundLayers.add(new BackgroundLayer(data,
+                    floatOr(lay, "parallaxx", 1f), floatOr(lay, "parallaxy", 1f),
+                    boolOr(lay, "repeatx"), boolOr(lay, "repeaty")));
             return;
         }
 
@@ -156,6 +206,39 @@ public class TiledLoader {
         map.layers.add(data);
     }
 
+    private static float floatOr(JsonObject obj, String key, float fallback) {
+        return obj.has(key) ? obj.get(key).getAsFloat() : fallback;
+    }
+
+    private static boolean boolOr(JsonObject obj, String key) {
+        return obj.has(key) && obj.get(key).getAsBoolean();
+    }
+
+    /**
+     * Bakes one tile collision layer into colliders using TILE_MERGE_MODE and records the counts.
+     * ONE_WAY is always merged by rows only: every row's top edge is its own landing surface,
+     * so stacking one-way rows into a single rectangle would change drop-through behavior.
+     */
+    private static void addTileColliders(TiledMap map, int[] data, Collider.Type type) {
+        int tiles = 0;
+        for (int raw : data) {
+            if ((raw & GID_MASK) != 0) tiles++;
+        }
+
+        int before = map.colliders.size();
+        int rowRuns;
+
+        if (TILE_MERGE_MODE == TileMergeMode.GREEDY_2D && type != Collider.Type.ONE_WAY) {
+            rowRuns = countRowRuns(map, data);
+            addTileCollidersMergedGreedy(map, data, type);
+        } else {
+            addTileCollidersMergedHorizontally(map, data, type);
+            rowRuns = map.colliders.size() - before;
+        }
+
+        map.tileColliderStats.add(new TiledMap.TileColliderStats(type, tiles, rowRuns, map.colliders.size() - before));
+    }
+
     /**
      * This merges adjacent non-zero tiles horizontally into a single Rect per run.
      * It drastically reduces collider count vs per-tile rectangles.
@@ -205,6 +288,83 @@ public class TiledLoader {
         }
     }
 
+    /**
+     * Greedy 2D merge: take the widest run starting at the first free tile (row-major),
+     * then grow it downward while the full span below is filled and free.
+     * A solid block becomes one Rect, a pillar becomes one Rect.
+     */
+    private static void addTileCollidersMergedGreedy(TiledMap map, int[] data, Collider.Type type) {
+        int width = map.width;
+        int height = map.height;
+        int tileW = map.tileWidth;
+        int tileH = map.tileHeight;
+
+        boolean[] used = new boolean[width * height];
+
+        for (int ty = 0; ty < height; ty++) {
+            for (int tx = 0; tx < width; tx++) {
+                int idx = ty * width + tx;
+                if (used[idx] || (data[idx] & GID_MASK) == 0) continue;
+
+                // widest run on this row
+                int endX = tx;
+                while (endX + 1 < width && isFreeSolidTile(data, used, ty * width + endX + 1)) {
+                    endX++;
+                }
+
+                // grow down while the whole span is available
+                int endY = ty;
+                while (endY + 1 < height && isFreeSpan(data, used, (endY + 1) * width, tx, endX)) {
+                    endY++;
+                }
+
+                for (int y = ty; y <= endY; y++) {
+                    for (int x = tx; x <= endX; x++) {
+                        used[y * width + x] = true;
+                    }
+                }
+
+                int px = tx * tileW;
+                int py = ty * tileH;
+                int pw = (endX - tx + 1) * tileW;
+                int ph = (endY - ty + 1) * tileH;
+
+                map.colliders.add(new Collider(new Rect(px, py, pw, ph), type));
+
+                tx = endX;
+            }
+        }
+
+        if (DEBUG) {
+            System.out.println("[TILE-COLLIDERS] " + type + " (2D) => total colliders now: " + map.colliders.size());
+        }
+    }
+
+    private static boolean isFreeSolidTile(int[] data, boolean[] used, int idx) {
+        return !used[idx] && (data[idx] & GID_MASK) != 0;
+    }
+
+    private static boolean isFreeSpan(int[] data, boolean[] used, int row, int fromX, int toX) {
+        for (int x = fromX; x <= toX; x++) {
+            if (!isFreeSolidTile(data, used, row + x)) return false;
+        }
+        return true;
+    }
+
+    // Number of colliders the row-only merge would produce (for the before/after report)
+    private static int countRowRuns(TiledMap map, int[] data) {
+        int runs = 0;
+        for (int ty = 0; ty < map.height; ty++) {
+            boolean inRun = false;
+            for (int tx = 0; tx < map.width; tx++) {
+                boolean filled = (data[ty * map.width + tx] & GID_MASK) != 0;
+                if (filled && !inRun) runs++;
+                inRun = filled;
+            }
+        }
+        return runs;
+    }
+
     private static void loadObjectLayer(JsonObject lay, String name, TiledMap map) {
         JsonArray objs = lay.getAsJsonArray("objects");
         if (objs == null) return;
@@ -281,6 +441,7 @@ public class TiledLoader {
             }
 
             map.colliders.add(new Collider(new Rect(x, y, w, h), ctype));
+            map.markObjectWalls();
         }
 
         if (DEBUG) {
@@ -349,6 +510,13 @@ public class TiledLoader {
         return name != null && name.equalsIgnoreCase(LAYER_GOAL);
     }
 
+    // Named Background, or carrying Tiled parallax / repeat settings
+    private static boolean isBackgroundLayer(JsonObject lay, String name) {
+        if (name != null && name.equalsIgnoreCase(LAYER_BACKGROUND)) return true;
+        return floatOr(lay, "parallaxx", 1f) != 1f || floatOr(lay, "parallaxy", 1f) != 1f
+                || boolOr(lay, "repeatx") || boolOr(lay, "repeaty");
+    }
+
     private static boolean isColliderObjectLayer(String name) {
         return name != null && name.equalsIgnoreCase(OBJ_COLLIDERS);
     }
@@ -1,9 +1,16 @@
 package main.java.game.map;
 
 import main.java.game.gfx.Camera;
+import main.java.game.gfx.Images;
+import main.java.game.gfx.SpriteBatch;
 import main.java.game.physics.Collider;
+import main.java.game.physics.ColliderStore;
+import main.java.game.physics.CollisionBackend;
+import main.java.game.physics.RectCollisionBackend;
+import main.java.game.physics.TileCollisionBackend;
 
 import java.awt.Graphics2D;
+import java.awt.Transparency;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
@@ -15,6 +22,28 @@ public class TiledMap {
     public record Tileset(int firstGid, int columns, BufferedImage tilesetImage) {
     }
 
+    /**
+     * Collider counts for one baked tile collision layer: one per tile, row-merged, and what was actually baked.
+     */
+    public record TileColliderStats(Collider.Type type, int tiles, int rowRuns, int baked) {
+        @Override
+        public String toString() {
+            return type + ": tiles=" + tiles + " rowRuns=" + rowRuns + " baked=" + baked;
+        }
+    }
+
+    /**
+     * Which backend resolves SOLID / ONE_WAY movement.
+     * RECTS always works; TILES needs walls that come only from tile layers;
+     * AUTO picks TILES when possible.
+     */
+    public enum CollisionMode {RECTS, TILES, AUTO}
+
+    private static final CollisionMode DEFAULT_COLLISION_MODE = CollisionMode.AUTO;
+
+    // Draw from pre-rendered chunks (see TileChunkCache) instead of tile by tile
+    private static final boolean USE_CHUNK_CACHE = true;
+
     private static final int GID_MASK = 0x1FFFFFFF;
     private static final int FLIP_H = 0x80000000;
     private static final int FLIP_V = 0x40000000;
@@ -27,21 +56,262 @@ public class TiledMap {
     // Render layers only (filtered by loader)
     public final List<int[]> layers = new ArrayList<>();
 
-    // Collision objects
+    // Layers drawn in a separate pass before the others (see BackgroundLayer)
+    public final List<BackgroundLayer> backgroundLayers = new ArrayList<>();
+
+    // Collision objects as authored (filled by the loader, baked into colliderStore)
     public final List<Collider> colliders = new ArrayList<>();
 
+    // Tile collision layer merge report (filled by the loader)
+    public final List<TileColliderStats> tileColliderStats = new ArrayList<>();
+
+    // Baked per-type collider arrays + broadphase, used by all runtime queries
+    private ColliderStore colliderStore;
+
+    // Raw occupancy of the Collision / OneWay tile layers (for the tile backend)
+    private final long[] solidTiles;
+    private final long[] oneWayTiles;
+    private boolean objectWalls = false;
+
+    private CollisionMode collisionMode = DEFAULT_COLLISION_MODE;
+    private CollisionBackend collision;
+
     private final List<Tileset> tilesets = new ArrayList<>();
 
+    // Created on first draw, so headless maps never allocate chunk images
+    private TileChunkCache chunkCache;
+
+    // Dense per-gid draw source (index = gid): tileset image + top-left of the tile in it; null image = skip.
+    // Package-private for GidLookupBenchmark.
+    BufferedImage[] gidImage;
+    int[] gidSrcX, gidSrcY;
+
+    // Pre-rendered flipped / rotated tiles, indexed by (gid << 3) | flip bits (raw >>> 29); null = not baked
+    private BufferedImage[] tileVariants;
+    private boolean variantsBaked = false;
+    private static final int MAX_VARIANT_GID = 1 << 20;
+
     public TiledMap(int width, int height, int tileWidth, int tileHeight) {
         this.width = width;
         this.height = height;
         this.tileWidth = tileWidth;
         this.tileHeight = tileHeight;
+
+        this.solidTiles = TileCollisionBackend.newBitset(width, height);
+        this.oneWayTiles = TileCollisionBackend.newBitset(width, height);
     }
 
     public void addTileset(Tileset ts) {
         tilesets.add(ts);
         tilesets.sort(Comparator.comparingInt(Tileset::firstGid));
+        invalidateRenderCache();
+    }
+
+    /**
+     * Builds the gid -> (image, sx, sy) table for every gid the render layers use,
+     * so drawing never searches tilesets. Rebuilt lazily after invalidateRenderCache().
+     */
+    public void buildGidTable() {
+        int maxGid = 0;
+        for (int[] layer : allRenderLayers()) {
+            for (int raw : layer) maxGid = Math.max(maxGid, raw & GID_MASK);
+        }
+
+        BufferedImage[] images = new BufferedImage[maxGid + 1];
+        int[] srcX = new int[maxGid + 1];
+        int[] srcY = new int[maxGid + 1];
+
+        for (int gid = 1; gid <= maxGid; gid++) {
+            Tileset ts = tilesetForGid(gid);
+            if (ts == null) continue;
+
+            int localId = gid - ts.firstGid();
+            images[gid] = ts.tilesetImage();
+            srcX[gid] = (localId % ts.columns()) * tileWidth;
+            srcY[gid] = (localId / ts.columns()) * tileHeight;
+        }
+
+        gidSrcX = srcX;
+        gidSrcY = srcY;
+        gidImage = images;
+    }
+
+    /**
+     * Renders every (gid, flip H / V / D) combination used by the render layers once, so flipped and
+     * rotated tiles draw with a plain blit. Call after tilesets and layers are loaded
+     * (drawing bakes them too if they aren't, e.g. after {@link #invalidateRenderCache()}).
+     *
+     * @return number of variants baked
+     */
+    public int bakeTileVariants() {
+        tileVariants = null;
+        variantsBaked = true;
+
+        List<int[]> all = allRenderLayers();
+        int maxGid = 0;
+        for (int[] layer : all) {
+            for (int raw : layer) {
+                if ((raw >>> 29) != 0) maxGid = Math.max(maxGid, raw & GID_MASK);
+            }
+        }
+        if (maxGid == 0 || maxGid > MAX_VARIANT_GID) return 0;
+        if (gidImage == null) buildGidTable();
+
+        BufferedImage[] variants = new BufferedImage[(maxGid + 1) << 3];
+        int baked = 0;
+
+        for (int[] layer : all) {
+            for (int raw : layer) {
+                int flips = raw >>> 29;
+                int gid = raw & GID_MASK;
+                if (flips == 0 || gid == 0) continue;
+
+                int key = (gid << 3) | flips;
+                if (variants[key] != null) continue;
+
+                BufferedImage src = gidImage[gid];
+                if (src == null) continue;
+
+                int sx = gidSrcX[gid];
+                int sy = gidSrcY[gid];
+
+                BufferedImage img = Images.createCompatible(tileWidth, tileHeight, Transparency.TRANSLUCENT);
+                Graphics2D g = img.createGraphics();
+                try {
+                    g.setTransform(flipTransform((raw & FLIP_H) != 0, (raw & FLIP_V) != 0, (raw & FLIP_D) != 0));
+                    g.drawImage(src,
+                            0, 0, tileWidth, tileHeight,
+                            sx, sy, sx + tileWidth, sy + tileHeight,
+                            null);
+                } finally {
+                    g.dispose();
+                }
+
+                variants[key] = img;
+                baked++;
+            }
+        }
+
+        tileVariants = variants;
+        if (chunkCache != null) chunkCache.invalidate();
+        for (BackgroundLayer bg : backgroundLayers) bg.invalidate();
+        return baked;
+    }
+
+    // Tile data of the background and regular render layers (load-time scans only)
+    private List<int[]> allRenderLayers() {
+        List<int[]> all = new ArrayList<>(backgroundLayers.size() + layers.size());
+        for (BackgroundLayer bg : backgroundLayers) all.add(bg.data);
+        all.addAll(layers);
+        return all;
+    }
+
+    // Tiled flip flags as a transform of the tile's own [0, tileWidth) x [0, tileHeight) box
+    private AffineTransform flipTransform(boolean fh, boolean fv, boolean fd) {
+        AffineTransform at = new AffineTransform();
+
+        // Diagonal flip: swap axes; combined with H/V encodes rotations
+        if (fd) {
+            at.translate(0, tileHeight);
+            at.rotate(-Math.PI / 2.0);
+            boolean tmp = fh;
+            fh = fv;
+            fv = tmp;
+        }
+
+        if (fh) {
+            at.translate(tileWidth, 0);
+            at.scale(-1, 1);
+        }
+        if (fv) {
+            at.translate(0, tileHeight);
+            at.scale(1, -1);
+        }
+        return at;
+    }
+
+    /**
+     * Must be called after changing {@link #layers} or {@link #backgroundLayers} once the map has been drawn.
+     * Flipped tile variants are baked again on the next draw.
+     */
+    public void invalidateRenderCache() {
+        gidImage = null;
+        tileVariants = null;
+        variantsBaked = false;
+        if (chunkCache != null) chunkCache.invalidate();
+        for (BackgroundLayer bg : backgroundLayers) bg.invalidate();
+    }
+
+    /**
+     * Bakes {@link #colliders} into per-type partitions with a tile-cell broadphase grid.
+     * Must be called again if colliders are added afterward.
+     */
+    public void bakeColliders() {
+        colliderStore = new ColliderStore(colliders, Math.max(1, width), Math.max(1, height), tileWidth, tileHeight);
+        collision = null;
+    }
+
+    /**
+     * Records the non-empty cells of a SOLID or ONE_WAY tile layer for the tile backend.
+     */
+    public void markCollisionTiles(Collider.Type type, int[] data) {
+        long[] bits = switch (type) {
+            case SOLID -> solidTiles;
+            case ONE_WAY -> oneWayTiles;
+            default -> throw new IllegalArgumentException("Not a wall type: " + type);
+        };
+
+        int n = Math.min(data.length, width * height);
+        for (int i = 0; i < n; i++) {
+            if ((data[i] & GID_MASK) != 0) TileCollisionBackend.set(bits, i);
+        }
+        collision = null;
+    }
+
+    /**
+     * Called by the loader when SOLID / ONE_WAY colliders come from an object layer,
+     * which the tile backend cannot see.
+     */
+    public void markObjectWalls() {
+        objectWalls = true;
+        collision = null;
+    }
+
+    public void setCollisionMode(CollisionMode mode) {
+        collisionMode = (mode == null) ? DEFAULT_COLLISION_MODE : mode;
+        collision = null;
+    }
+
+    /**
+     * True if movement can use the tile bitsets (walls come only from tile layers).
+     */
+    public boolean supportsTileCollision() {
+        return !objectWalls;
+    }
+
+    /**
+     * Backend for SOLID / ONE_WAY movement, per the current {@link CollisionMode}.
+     * TILES falls back to RECTS on maps with object walls.
+     * Created lazily: call once before handing the map to other threads (see StageMaps).
+     */
+    public CollisionBackend collision() {
+        if (collision == null) {
+            if (collisionMode != CollisionMode.RECTS && supportsTileCollision()) {
+                collision = new TileCollisionBackend(width, height, tileWidth, tileHeight, solidTiles, oneWayTiles);
+            } else {
+                if (colliderStore == null) bakeColliders();
+                collision = new RectCollisionBackend(colliderStore);
+            }
+        }
+        return collision;
+    }
+
+    /**
+     * Baked colliders of one type. Bakes on first use if the loader did not.
+     */
+    public ColliderStore.Partition partition(Collider.Type type) {
+        if (colliderStore == null) bakeColliders();
+        return colliderStore.get(type);
     }
 
     public int getPixelWidth() {
@@ -55,7 +325,7 @@ public class TiledMap {
     /**
      * Tileset lookup to find the largest tileset.firstGid <= gid
      */
-    private Tileset tilesetForGid(int gid) {
+    Tileset tilesetForGid(int gid) {
         if (tilesets.isEmpty()) return null;
 
         int lo = 0, hi = tilesets.size() - 1;
@@ -76,7 +346,22 @@ public class TiledMap {
     }
 
     public void draw(Graphics2D g2d, Camera camera) {
-        if (tilesets.isEmpty() || layers.isEmpty()) return;
+        if (tilesets.isEmpty()) return;
+        if (!variantsBaked) bakeTileVariants();
+
+        // Background pass: a few strip blits per layer, with parallax
+        if (!backgroundLayers.isEmpty()) {
+            if (gidImage == null) buildGidTable();
+            for (BackgroundLayer bg : backgroundLayers) bg.draw(g2d, camera, this);
+        }
+
+        if (layers.isEmpty()) return;
+
+        if (USE_CHUNK_CACHE) {
+            if (chunkCache == null) chunkCache = new TileChunkCache(this);
+            chunkCache.draw(g2d, camera);
+            return;
+        }
 
         int startX = Math.max(0, (int) (camera.x / tileWidth));
         int startY = Math.max(0, (int) (camera.y / tileHeight));
@@ -84,78 +369,160 @@ public class TiledMap {
         int endX = Math.min(width, startX + (camera.viewW / tileWidth) + 2);
         int endY = Math.min(height, startY + (camera.viewH / tileHeight) + 2);
 
-        int camX = (int) camera.x;
-        int camY = (int) camera.y;
+        drawTiles(g2d, startX, startY, endX, endY, (int) camera.x, (int) camera.y);
+    }
 
-        AffineTransform old = g2d.getTransform();
+    /**
+     * Same as {@link #draw}, queued into a batch. Every background layer gets its own batch layer, then
+     * the tile layers (one batch layer for the chunks, or one per render layer when drawing tile by tile),
+     * so nothing that overlaps shares a layer.
+     *
+     * @return the first batch layer after the ones the map used, or -1 if a rotated tile has no baked
+     * variant (a batch has no rotation): the map must then be drawn with {@link #draw} instead
+     */
+    public int submit(SpriteBatch batch, Camera camera, int firstLayer) {
+        int layer = firstLayer;
+        if (tilesets.isEmpty()) return layer;
+        if (!variantsBaked) bakeTileVariants();
+
+        if (!backgroundLayers.isEmpty()) {
+            if (gidImage == null) buildGidTable();
+            for (BackgroundLayer bg : backgroundLayers) bg.submit(batch, layer++, camera, this);
+        }
+
+        if (layers.isEmpty()) return layer;
+
+        if (USE_CHUNK_CACHE) {
+            if (chunkCache == null) chunkCache = new TileChunkCache(this);
+            chunkCache.submit(batch, layer, camera);
+            return layer + 1;
+        }
 
+        if (gidImage == null) buildGidTable();
+
+        int startX = Math.max(0, (int) (camera.x / tileWidth));
+        int startY = Math.max(0, (int) (camera.y / tileHeight));
+        int endX = Math.min(width, startX + (camera.viewW / tileWidth) + 2);
+        int endY = Math.min(height, startY + (camera.viewH / tileHeight) + 2);
+
+        for (int[] data : layers) {
+            if (!submitLayerTiles(batch, layer++, data, startX, startY, endX, endY, (int) camera.x, (int) camera.y)) {
+                return -1;
+            }
+        }
+        return layer;
+    }
+
+    // drawLayerTiles() into a batch; flips come from the baked variants, or the batch's own H / V flips
+    // when there are none. False at the first rotated (diagonal) tile without a variant.
+    private boolean submitLayerTiles(SpriteBatch batch, int layer, int[] data,
+                                     int startX, int startY, int endX, int endY, int camX, int camY) {
+        for (int y = startY; y < endY; y++) {
+            int row = y * width;
+            int dy = y * tileHeight - camY;
+
+            for (int x = startX; x < endX; x++) {
+                int raw = data[row + x];
+                int gid = raw & GID_MASK;
+                if (gid == 0 || gidImage[gid] == null) continue;
+
+                int dx = x * tileWidth - camX;
+
+                if ((raw >>> 29) == 0) {
+                    batch.draw(gidImage[gid], gidSrcX[gid], gidSrcY[gid], tileWidth, tileHeight,
+                            dx, dy, tileWidth, tileHeight, 0, 1f, layer);
+                    continue;
+                }
+
+                int key = (gid << 3) | (raw >>> 29);
+                if (tileVariants != null && key < tileVariants.length && tileVariants[key] != null) {
+                    batch.draw(tileVariants[key], dx, dy, layer);
+                    continue;
+                }
+
+                // Not baked (see bakeTileVariants): same pixels as drawLayerTiles' transform path
+                if ((raw & FLIP_D) != 0) return false;
+                int flip = ((raw & FLIP_H) != 0 ? SpriteBatch.FLIP_H : 0) | ((raw & FLIP_V) != 0 ? SpriteBatch.FLIP_V : 0);
+                batch.draw(gidImage[gid], gidSrcX[gid], gidSrcY[gid], tileWidth, tileHeight,
+                        dx, dy, tileWidth, tileHeight, flip, 1f, layer);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Draws tiles [startX, endX) x [startY, endY) of every render layer, with the tile at (0, 0)
+     * landing on (-camX, -camY). Used for direct drawing and for baking chunks.
+     */
+    void drawTiles(Graphics2D g2d, int startX, int startY, int endX, int endY, int camX, int camY) {
         for (int[] layer : layers) {
-            for (int y = startY; y < endY; y++) {
-                int row = y * width;
-                int dy = y * tileHeight - camY;
-
-                for (int x = startX; x < endX; x++) {
-                    int raw = layer[row + x];
-                    int gid = raw & GID_MASK;
-                    if (gid == 0) continue;
-
-                    boolean fh = (raw & FLIP_H) != 0;
-                    boolean fv = (raw & FLIP_V) != 0;
-                    boolean fd = (raw & FLIP_D) != 0;
-
-                    Tileset ts = tilesetForGid(gid);
-                    if (ts == null) continue;
-
-                    int localId = gid - ts.firstGid();
-                    if (localId < 0) continue;
-
-                    int sx = (localId % ts.columns()) * tileWidth;
-                    int sy = (localId / ts.columns()) * tileHeight;
-
-                    int dx = x * tileWidth - camX;
-
-                    // Fast path: no transform flags
-                    if (!fh && !fv && !fd) {
-                        g2d.drawImage(
-                                ts.tilesetImage(),
-                                dx, dy, dx + tileWidth, dy + tileHeight,
-                                sx, sy, sx + tileWidth, sy + tileHeight,
-                                null
-                        );
-                        continue;
-                    }
-
-                    // Transform path (Tiled flip/rotate)
-                    AffineTransform at = new AffineTransform();
-                    at.translate(dx, dy);
-
-                    // Diagonal flip: swap axes; combined with H/V encodes rotations
-                    if (fd) {
-                        at.translate(0, tileHeight);
-                        at.rotate(-Math.PI / 2.0);
-                        boolean tmp = fh;
-                        fh = fv;
-                        fv = tmp;
-                    }
-
-                    if (fh) {
-                        at.translate(tileWidth, 0);
-                        at.scale(-1, 1);
-                    }
-                    if (fv) {
-                        at.translate(0, tileHeight);
-                        at.scale(1, -1);
-                    }
-
-                    g2d.setTransform(at);
+            drawLayerTiles(g2d, layer, startX, startY, endX, endY, camX, camY);
+        }
+    }
+
+    /**
+     * {@link #drawTiles} for a single layer's data.
+     */
+    void drawLayerTiles(Graphics2D g2d, int[] layer, int startX, int startY, int endX, int endY, int camX, int camY) {
+        if (gidImage == null) buildGidTable();
+
+        BufferedImage[] images = gidImage;
+        int[] srcX = gidSrcX;
+        int[] srcY = gidSrcY;
+
+        AffineTransform old = g2d.getTransform();
+
+        for (int y = startY; y < endY; y++) {
+            int row = y * width;
+            int dy = y * tileHeight - camY;
+
+            for (int x = startX; x < endX; x++) {
+                int raw = layer[row + x];
+                int gid = raw & GID_MASK;
+                if (gid == 0) continue;
+
+                boolean fh = (raw & FLIP_H) != 0;
+                boolean fv = (raw & FLIP_V) != 0;
+                boolean fd = (raw & FLIP_D) != 0;
+
+                BufferedImage src = images[gid];
+                if (src == null) continue;
+
+                int sx = srcX[gid];
+                int sy = srcY[gid];
+
+                int dx = x * tileWidth - camX;
+
+                // Fast path: no transform flags
+                if (!fh && !fv && !fd) {
                     g2d.drawImage(
-                            ts.tilesetImage(),
-                            0, 0, tileWidth, tileHeight,
+                            src,
+                            dx, dy, dx + tileWidth, dy + tileHeight,
                             sx, sy, sx + tileWidth, sy + tileHeight,
                             null
                     );
-                    g2d.setTransform(old);
+                    continue;
+                }
+
+                // Flipped / rotated: pre-rendered variant
+                int key = (gid << 3) | (raw >>> 29);
+                if (tileVariants != null && key < tileVariants.length && tileVariants[key] != null) {
+                    g2d.drawImage(tileVariants[key], dx, dy, null);
+                    continue;
                 }
+
+                // Transform path (variants not baked)
+                AffineTransform at = AffineTransform.getTranslateInstance(dx, dy);
+                at.concatenate(flipTransform(fh, fv, fd));
+
+                g2d.setTransform(at);
+                g2d.drawImage(
+                        src,
+                        0, 0, tileWidth, tileHeight,
+                        sx, sy, sx + tileWidth, sy + tileHeight,
+                        null
+                );
+                g2d.setTransform(old);
             }
         }
     }
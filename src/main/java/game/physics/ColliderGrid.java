@@ -0,0 +1,109 @@
+package main.java.game.physics;
+
+/**
+ * Uniform broadphase grid over static colliders, keyed on tile cells.
+ * Built once after the map is loaded; each cell stores the indices of the boxes touching it.
+ * The grid is never modified after construction, so it is safe to share between readers.
+ */
+public class ColliderGrid {
+
+    private final int cellW, cellH;
+    private final int cols, rows;
+
+    // CSR layout: colliders of cell i are cellItems[cellStart[i] .. cellStart[i + 1])
+    private final int[] cellStart;
+    private final int[] cellItems;
+
+    /**
+     * Indexes boxes 0..count-1 given as packed x/y/w/h arrays (see {@link ColliderStore}).
+     */
+    public ColliderGrid(int[] xs, int[] ys, int[] ws, int[] hs, int count, int cols, int rows, int cellW, int cellH) {
+        if (cols <= 0 || rows <= 0 || cellW <= 0 || cellH <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive");
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.cellW = cellW;
+        this.cellH = cellH;
+
+        int cells = cols * rows;
+        cellStart = new int[cells + 1];
+
+        // Pass 1: count colliders per cell
+        for (int id = 0; id < count; id++) {
+            if (ws[id] <= 0 || hs[id] <= 0) continue;
+
+            int x0 = cellX(xs[id]), x1 = cellX(xs[id] + ws[id] - 1);
+            int y0 = cellY(ys[id]), y1 = cellY(ys[id] + hs[id] - 1);
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int cx = x0; cx <= x1; cx++) {
+                    cellStart[cy * cols + cx + 1]++;
+                }
+            }
+        }
+
+        for (int i = 0; i < cells; i++) {
+            cellStart[i + 1] += cellStart[i];
+        }
+
+        // Pass 2: fill (in index order, so each cell is already sorted)
+        cellItems = new int[cellStart[cells]];
+        int[] fill = new int[cells];
+        for (int id = 0; id < count; id++) {
+            if (ws[id] <= 0 || hs[id] <= 0) continue;
+
+            int x0 = cellX(xs[id]), x1 = cellX(xs[id] + ws[id] - 1);
+            int y0 = cellY(ys[id]), y1 = cellY(ys[id] + hs[id] - 1);
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int cx = x0; cx <= x1; cx++) {
+                    int cell = cy * cols + cx;
+                    cellItems[cellStart[cell] + fill[cell]++] = id;
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects every box whose cells overlap the given world-space box.
+     * Results are a superset of the actual intersections; callers still run the narrow test.
+     */
+    public void query(float x, float y, float w, float h, ColliderQuery out) {
+        out.clear();
+
+        int x0 = cellX((int) Math.floor(x));
+        int x1 = cellX((int) Math.floor(x + w));
+        int y0 = cellY((int) Math.floor(y));
+        int y1 = cellY((int) Math.floor(y + h));
+
+        for (int cy = y0; cy <= y1; cy++) {
+            int row = cy * cols;
+            for (int cx = x0; cx <= x1; cx++) {
+                int cell = row + cx;
+                for (int i = cellStart[cell], end = cellStart[cell + 1]; i < end; i++) {
+                    out.add(cellItems[i]);
+                }
+            }
+        }
+
+        out.sortUnique();
+    }
+
+    public int getCellWidth() {
+        return cellW;
+    }
+
+    public int getCellHeight() {
+        return cellH;
+    }
+
+    // Out-of-map coordinates clamp into the border cells, so nothing is ever lost
+    private int cellX(int px) {
+        int c = Math.floorDiv(px, cellW);
+        return Math.max(0, Math.min(cols - 1, c));
+    }
+
+    private int cellY(int py) {
+        int c = Math.floorDiv(py, cellH);
+        return Math.max(0, Math.min(rows - 1, c));
+    }
+}
@@ -0,0 +1,45 @@
+package main.java.game.physics;
+
+import java.util.Arrays;
+
+/**
+ * Reusable result buffer for broadphase queries.
+ * Holds collider indices (into one {@link ColliderStore.Partition}) in ascending order, without duplicates.
+ * Each entity owns one, so queries do not allocate once the buffer has grown.
+ */
+public class ColliderQuery {
+    private int[] ids = new int[32];
+    private int count = 0;
+
+    public int size() {
+        return count;
+    }
+
+    public int get(int i) {
+        return ids[i];
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public void add(int id) {
+        if (count == ids.length) ids = Arrays.copyOf(ids, ids.length * 2);
+        ids[count++] = id;
+    }
+
+    /**
+     * Colliders spanning several cells are reported once per cell; sorting keeps
+     * the load order (so resolution order matches a full scan) and lets us drop repeats.
+     */
+    void sortUnique() {
+        if (count < 2) return;
+        Arrays.sort(ids, 0, count);
+
+        int n = 1;
+        for (int i = 1; i < count; i++) {
+            if (ids[i] != ids[n - 1]) ids[n++] = ids[i];
+        }
+        count = n;
+    }
+}
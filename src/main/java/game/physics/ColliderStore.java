@@ -0,0 +1,103 @@
+package main.java.game.physics;
+
+import java.util.List;
+
+/**
+ * Baked, read-only collider storage.
+ * Colliders are split by {@link Collider.Type} into partitions of packed int arrays,
+ * so hot loops only walk the type they care about and never chase Rect pointers.
+ */
+public class ColliderStore {
+
+    /**
+     * All colliders of one type, struct-of-arrays style.
+     * Index i is the same collider in every array.
+     */
+    public static class Partition {
+        public final Collider.Type type;
+        public final int count;
+
+        public final int[] x, y, w, h;
+
+        // Trigger metadata (primarily for TRAP)
+        public final String[] tag;
+        public final int[] damage;
+
+        private final ColliderGrid grid;
+
+        private Partition(Collider.Type type, List<Collider> source, int cols, int rows, int cellW, int cellH) {
+            this.type = type;
+
+            int n = 0;
+            for (Collider c : source) {
+                if (c.type == type && c.rect.w > 0 && c.rect.h > 0) n++;
+            }
+            this.count = n;
+
+            x = new int[n];
+            y = new int[n];
+            w = new int[n];
+            h = new int[n];
+            tag = new String[n];
+            damage = new int[n];
+
+            // Keep load order inside the partition
+            int i = 0;
+            for (Collider c : source) {
+                if (c.type != type || c.rect.w <= 0 || c.rect.h <= 0) continue;
+                x[i] = c.rect.x;
+                y[i] = c.rect.y;
+                w[i] = c.rect.w;
+                h[i] = c.rect.h;
+                tag[i] = c.tag;
+                damage[i] = c.damage;
+                i++;
+            }
+
+            grid = new ColliderGrid(x, y, w, h, count, cols, rows, cellW, cellH);
+        }
+
+        /**
+         * Collects indices of colliders in this partition near the given world-space box.
+         */
+        public void query(float qx, float qy, float qw, float qh, ColliderQuery out) {
+            grid.query(qx, qy, qw, qh, out);
+        }
+
+        /**
+         * Same rule as {@link Rect#intersects(float, float, int, int)}.
+         */
+        public boolean intersects(int i, float px, float py, int pw, int ph) {
+            if (pw <= 0 || ph <= 0) return false;
+            return px < x[i] + w[i] && px + pw > x[i] && py < y[i] + h[i] && py + ph > y[i];
+        }
+    }
+
+    public final Partition solid;
+    public final Partition oneWay;
+    public final Partition traps;
+    public final Partition goals;
+
+    /**
+     * Bakes the given colliders; cols/rows/cell size describe the broadphase grid (normally the tile grid).
+     */
+    public ColliderStore(List<Collider> colliders, int cols, int rows, int cellW, int cellH) {
+        solid = new Partition(Collider.Type.SOLID, colliders, cols, rows, cellW, cellH);
+        oneWay = new Partition(Collider.Type.ONE_WAY, colliders, cols, rows, cellW, cellH);
+        traps = new Partition(Collider.Type.TRAP, colliders, cols, rows, cellW, cellH);
+        goals = new Partition(Collider.Type.GOAL, colliders, cols, rows, cellW, cellH);
+    }
+
+    public Partition get(Collider.Type type) {
+        return switch (type) {
+            case SOLID -> solid;
+            case ONE_WAY -> oneWay;
+            case TRAP -> traps;
+            case GOAL -> goals;
+        };
+    }
+
+    public int size() {
+        return solid.count + oneWay.count + traps.count + goals.count;
+    }
+}
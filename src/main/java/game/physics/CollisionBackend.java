@@ -0,0 +1,35 @@
+package main.java.game.physics;
+
+/**
+ * Resolves moving boxes against a map's static SOLID / ONE_WAY geometry, one axis at a time.
+ * <p>
+ * Boxes are given by an anchor (the entity's x or y) plus an offset to the box's top-left,
+ * so results come back in the caller's own coordinates.
+ * SOLID always blocks. ONE_WAY either blocks like a wall ({@code oneWayIsWall}),
+ * or follows platform rules: it only catches a falling box that was above it,
+ * overlaps it by more than {@code edgePad}, and is not dropping through.
+ * <p>
+ * Implementations are read-only after construction; all per-call state lives in the {@link Contact}.
+ */
+public interface CollisionBackend {
+
+    /**
+     * Moves the box horizontally from anchor x to newX.
+     *
+     * @param offX box left = anchor + offX
+     * @param top  box top (world-space)
+     * @return resolved anchor x
+     */
+    float moveX(float x, float newX, float offX, float top, int w, int h,
+                boolean oneWayIsWall, Contact contact);
+
+    /**
+     * Moves the box vertically from anchor y to newY. Sets contact.landed / contact.hitHead.
+     *
+     * @param left box left (world-space)
+     * @param offY box top = anchor + offY
+     * @return resolved anchor y
+     */
+    float moveY(float left, float y, float newY, float offY, int w, int h,
+                boolean oneWayIsWall, boolean dropping, float edgePad, Contact contact);
+}
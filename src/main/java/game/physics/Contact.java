@@ -0,0 +1,20 @@
+package main.java.game.physics;
+
+/**
+ * Per-mover collision output + scratch space.
+ * Each moving entity owns one and passes it to every {@link CollisionBackend} call,
+ * which keeps the backends stateless (and shareable) and the calls allocation-free.
+ */
+public class Contact {
+    public boolean blockedX;   // horizontal move was stopped by a wall
+    public boolean landed;     // vertical move ended on top of something
+    public boolean hitHead;    // vertical move was stopped from below
+
+    // Broadphase buffer for rectangle backends
+    final ColliderQuery nearby = new ColliderQuery();
+
+    void clearY() {
+        landed = false;
+        hitHead = false;
+    }
+}
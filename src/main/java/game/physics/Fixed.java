@@ -0,0 +1,61 @@
+package main.java.game.physics;
+
+/**
+ * Integer subpixel helpers for the fixed-point physics mode.
+ * <p>
+ * Positions are ints in 1/ONE pixel, velocities in subpixels per tick, timers in ticks.
+ * Every step is integer math, so a run is bit-for-bit reproducible regardless of frame timing.
+ * Subpixel values convert to float exactly (up to 65536 px), so the float collision backends
+ * return results that land back on the subpixel grid without rounding.
+ */
+public final class Fixed {
+
+    // Simulation rate the tick-based constants are derived for (matches GamePanel.TARGET_FPS)
+    public static final int TICK_RATE = 60;
+
+    public static final int SHIFT = 8;
+    public static final int ONE = 1 << SHIFT;
+
+    private Fixed() {
+    }
+
+    public static int fromPx(float px) {
+        return Math.round(px * ONE);
+    }
+
+    public static float toPx(int v) {
+        return v / (float) ONE;
+    }
+
+    // px/sec -> subpixels per tick
+    public static int speed(float pxPerSec) {
+        return Math.round(pxPerSec * ONE / TICK_RATE);
+    }
+
+    // subpixels per tick -> px/sec (for the float view of velocity)
+    public static float toPxPerSec(int v) {
+        return v * (float) TICK_RATE / ONE;
+    }
+
+    // px/sec^2 -> subpixels per tick, added once per tick
+    public static int accel(float pxPerSec2) {
+        return Math.round(pxPerSec2 * ONE / (TICK_RATE * TICK_RATE));
+    }
+
+    // seconds -> whole ticks (at least 1 for any positive duration)
+    public static int ticks(float seconds) {
+        if (seconds <= 0f) return 0;
+        return Math.max(1, Math.round(seconds * TICK_RATE));
+    }
+
+    /**
+     * floor(sqrt(v)) for v >= 0, exact for the whole long range.
+     */
+    public static long isqrt(long v) {
+        if (v <= 0) return 0;
+        long r = (long) Math.sqrt((double) v);
+        while (r * r > v) r--;
+        while ((r + 1) * (r + 1) <= v) r++;
+        return r;
+    }
+}
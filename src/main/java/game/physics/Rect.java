@@ -14,6 +14,20 @@ public class Rect {
         this.h = h;
     }
 
+    public Rect() {
+    }
+
+    /**
+     * Overwrites this rect in place (for reusable query outputs).
+     */
+    public Rect set(int x, int y, int w, int h) {
+        this.x = x;
+        this.y = y;
+        this.w = w;
+        this.h = h;
+        return this;
+    }
+
     public boolean intersects(float px, float py, int pw, int ph) {
         if (w <= 0 || h <= 0 || pw <= 0 || ph <= 0) return false;
         return px < x + w && px + pw > x && py < y + h && py + ph > y;
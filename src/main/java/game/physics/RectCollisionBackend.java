@@ -0,0 +1,139 @@
+package main.java.game.physics;
+
+/**
+ * Reference backend: resolves against the baked SOLID / ONE_WAY rectangles of a {@link ColliderStore}.
+ * Works for any map, including hand-placed object colliders.
+ * <p>
+ * Moves are swept: every face the box's leading edge crosses between the old and new position
+ * is a candidate, and the nearest one wins, so fast movers cannot skip thin colliders.
+ */
+public class RectCollisionBackend implements CollisionBackend {
+
+    // Margin around swept query boxes, so faces sitting exactly on a cell edge are never missed
+    private static final float QUERY_PAD = 16f;
+
+    private final ColliderStore.Partition solid;
+    private final ColliderStore.Partition oneWay;
+
+    public RectCollisionBackend(ColliderStore store) {
+        this.solid = store.solid;
+        this.oneWay = store.oneWay;
+    }
+
+    @Override
+    public float moveX(float x, float newX, float offX, float top, int w, int h,
+                       boolean oneWayIsWall, Contact contact) {
+        contact.blockedX = false;
+        if (newX == x) return newX;
+
+        boolean right = newX > x;
+        float oldLeft = x + offX;
+        float oldRight = oldLeft + w;
+        float newLeft = newX + offX;
+        float newRight = newLeft + w;
+
+        float qx = Math.min(oldLeft, newLeft) - QUERY_PAD;
+        float qw = Math.abs(newX - x) + w + QUERY_PAD * 2f;
+
+        float resolved = newX;
+
+        int passes = oneWayIsWall ? 2 : 1;
+        for (int pass = 0; pass < passes; pass++) {
+            ColliderStore.Partition part = (pass == 0) ? solid : oneWay;
+            part.query(qx, top, qw, h, contact.nearby);
+
+            for (int i = 0; i < contact.nearby.size(); i++) {
+                int c = contact.nearby.get(i);
+                if (!(top < part.y[c] + part.h[c] && top + h > part.y[c])) continue;
+
+                // Only faces the leading edge reaches during this move (earliest hit wins)
+                if (right) {
+                    float face = part.x[c];
+                    if (face >= oldRight && face < newRight) {
+                        resolved = Math.min(resolved, (face - w) - offX);
+                        contact.blockedX = true;
+                    }
+                } else {
+                    float face = part.x[c] + part.w[c];
+                    if (face <= oldLeft && face > newLeft) {
+                        resolved = Math.max(resolved, face - offX);
+                        contact.blockedX = true;
+                    }
+                }
+            }
+        }
+        return resolved;
+    }
+
+    @Override
+    public float moveY(float left, float y, float newY, float offY, int w, int h,
+                       boolean oneWayIsWall, boolean dropping, float edgePad, Contact contact) {
+        contact.clearY();
+        if (newY == y) return newY;
+
+        boolean falling = newY > y;
+
+        float prevTop = y + offY;
+        float prevBottom = prevTop + h;
+        float newTop = newY + offY;
+        float newBottom = newTop + h;
+
+        float qy = Math.min(prevTop, newTop) - QUERY_PAD;
+        float qh = Math.abs(newTop - prevTop) + h + QUERY_PAD * 2f;
+
+        float bestFace = falling ? Float.POSITIVE_INFINITY : Float.NEGATIVE_INFINITY;
+
+        // SOLID first, then ONE_WAY
+        for (int pass = 0; pass < 2; pass++) {
+            ColliderStore.Partition part = (pass == 0) ? solid : oneWay;
+            boolean platform = pass == 1 && !oneWayIsWall;
+
+            // Moving up: platforms are pass-through
+            if (platform && (!falling || dropping)) continue;
+
+            part.query(left, qy, w, qh, contact.nearby);
+
+            for (int i = 0; i < contact.nearby.size(); i++) {
+                int c = contact.nearby.get(i);
+                if (!(left < part.x[c] + part.w[c] && left + w > part.x[c])) continue;
+
+                if (falling) {
+                    float face = part.y[c];
+
+                    if (platform) {
+                        boolean wasAbove = prevBottom <= face + 0.5f;
+                        boolean nowCrossed = newBottom > face;
+
+                        float platLeft = part.x[c] + edgePad;
+                        float platRight = part.x[c] + part.w[c] - edgePad;
+
+                        boolean overlapsHoriz = left + w > platLeft && left < platRight;
+                        if (!(wasAbove && nowCrossed && overlapsHoriz)) continue;
+                    } else {
+                        // top face below our old top (so we were above it, or sunk into it) and reached this move
+                        if (!(face >= prevTop && face < newBottom)) continue;
+                    }
+
+                    bestFace = Math.min(bestFace, face);
+                } else {
+                    float face = part.y[c] + part.h[c];
+                    if (!(face <= prevBottom && face > newTop)) continue;
+
+                    bestFace = Math.max(bestFace, face);
+                }
+            }
+        }
+
+        if (falling && bestFace != Float.POSITIVE_INFINITY) {
+            // land on top
+            contact.landed = true;
+            return (bestFace - h) - offY;
+        }
+        if (!falling && bestFace != Float.NEGATIVE_INFINITY) {
+            // hit head
+            contact.hitHead = true;
+            return bestFace - offY;
+        }
+        return newY;
+    }
+}
@@ -0,0 +1,204 @@
+package main.java.game.physics;
+
+/**
+ * Tile-grid backend: SOLID / ONE_WAY occupancy kept as one packed bitset per type (bit = ty * width + tx).
+ * Moves walk only the cells the box's leading edge sweeps over, nearest first,
+ * so cost is O(cells touched) with no allocation and fast movers cannot skip a tile.
+ * <p>
+ * Only valid for maps whose walls come entirely from tile layers (no object colliders);
+ * results match {@link RectCollisionBackend} on the rectangles those tiles bake into,
+ * including ONE_WAY edge padding, which only applies at the ends of a run of platform tiles.
+ */
+public class TileCollisionBackend implements CollisionBackend {
+
+    private final int width, height;
+    private final int tileW, tileH;
+
+    private final long[] solid;
+    private final long[] oneWay;
+
+    public TileCollisionBackend(int width, int height, int tileW, int tileH, long[] solid, long[] oneWay) {
+        this.width = width;
+        this.height = height;
+        this.tileW = tileW;
+        this.tileH = tileH;
+        this.solid = solid;
+        this.oneWay = oneWay;
+    }
+
+    /**
+     * Packed occupancy for a width * height tile grid (all clear).
+     */
+    public static long[] newBitset(int width, int height) {
+        return new long[(width * height + 63) >>> 6];
+    }
+
+    public static void set(long[] bits, int idx) {
+        bits[idx >>> 6] |= 1L << idx;
+    }
+
+    private static boolean get(long[] bits, int idx) {
+        return (bits[idx >>> 6] & (1L << idx)) != 0;
+    }
+
+    @Override
+    public float moveX(float x, float newX, float offX, float top, int w, int h,
+                       boolean oneWayIsWall, Contact contact) {
+        contact.blockedX = false;
+        if (newX == x) return newX;
+
+        float oldLeft = x + offX;
+        float newLeft = newX + offX;
+
+        int r0 = Math.max(0, firstCell(top, tileH));
+        int r1 = Math.min(height - 1, lastCell(top + h, tileH));
+        if (r0 > r1) return newX;
+
+        if (newX > x) {
+            // Columns whose left face lies in [oldRight, newRight), nearest first
+            int cFrom = Math.max(0, (int) Math.ceil((oldLeft + w) / tileW));
+            int cTo = Math.min(width - 1, lastCell(newLeft + w, tileW));
+            for (int c = cFrom; c <= cTo; c++) {
+                if (columnFaceBlocked(c, -1, r0, r1, oneWayIsWall)) {
+                    contact.blockedX = true;
+                    return (c * tileW - w) - offX;
+                }
+            }
+        } else {
+            // Columns whose right face lies in (newLeft, oldLeft], nearest first
+            int cFrom = Math.min(width - 1, (int) Math.floor(oldLeft / tileW) - 1);
+            int cTo = Math.max(0, firstCell(newLeft, tileW));
+            for (int c = cFrom; c >= cTo; c--) {
+                if (columnFaceBlocked(c, 1, r0, r1, oneWayIsWall)) {
+                    contact.blockedX = true;
+                    return ((c + 1) * tileW) - offX;
+                }
+            }
+        }
+        return newX;
+    }
+
+    @Override
+    public float moveY(float left, float y, float newY, float offY, int w, int h,
+                       boolean oneWayIsWall, boolean dropping, float edgePad, Contact contact) {
+        contact.clearY();
+        if (newY == y) return newY;
+
+        float prevTop = y + offY;
+        float prevBottom = prevTop + h;
+        float newTop = newY + offY;
+        float newBottom = newTop + h;
+
+        int c0 = Math.max(0, firstCell(left, tileW));
+        int c1 = Math.min(width - 1, lastCell(left + w, tileW));
+        if (c0 > c1) return newY;
+
+        if (newY > y) {
+            // Rows whose top face lies in [prevTop, newBottom): the first surface reached wins
+            boolean platforms = !oneWayIsWall && !dropping;
+            int rFrom = Math.max(0, (int) Math.ceil(prevTop / tileH));
+            int rTo = Math.min(height - 1, lastCell(newBottom, tileH));
+
+            for (int r = rFrom; r <= rTo; r++) {
+                boolean lands = rowFaceBlocked(r, -1, c0, c1, oneWayIsWall);
+
+                if (!lands && platforms) {
+                    float platformTop = r * tileH;
+                    boolean wasAbove = prevBottom <= platformTop + 0.5f;
+                    boolean nowCrossed = newBottom > platformTop;
+                    lands = wasAbove && nowCrossed && platformCatches(r, c0, c1, left, left + w, edgePad);
+                }
+
+                if (lands) {
+                    contact.landed = true;
+                    return (r * tileH - h) - offY;
+                }
+            }
+        } else {
+            // Rows whose bottom face lies in (newTop, prevBottom], nearest first; platforms are pass-through
+            int rFrom = Math.min(height - 1, (int) Math.floor(prevBottom / tileH) - 1);
+            int rTo = Math.max(0, firstCell(newTop, tileH));
+
+            for (int r = rFrom; r >= rTo; r--) {
+                if (rowFaceBlocked(r, 1, c0, c1, oneWayIsWall)) {
+                    contact.hitHead = true;
+                    return ((r + 1) * tileH) - offY;
+                }
+            }
+        }
+        return newY;
+    }
+
+    // ---------------- Internals ----------------
+
+    private boolean blocked(int idx, boolean oneWayIsWall) {
+        return get(solid, idx) || (oneWayIsWall && get(oneWay, idx));
+    }
+
+    /**
+     * True if some cell of column c (rows r0..r1) has an exposed face toward column c + side,
+     * i.e. the cell blocks and its neighbour on that side does not. Faces between two blocking
+     * cells are interior (merged rectangles have none there either), so they never stop a move.
+     */
+    private boolean columnFaceBlocked(int c, int side, int r0, int r1, boolean oneWayIsWall) {
+        int n = c + side;
+        boolean edge = n < 0 || n >= width;
+        for (int r = r0; r <= r1; r++) {
+            int row = r * width;
+            if (blocked(row + c, oneWayIsWall) && (edge || !blocked(row + n, oneWayIsWall))) return true;
+        }
+        return false;
+    }
+
+    // Row version of columnFaceBlocked: cells of row r (cols c0..c1) exposed toward row r + side
+    private boolean rowFaceBlocked(int r, int side, int c0, int c1, boolean oneWayIsWall) {
+        int n = r + side;
+        boolean edge = n < 0 || n >= height;
+        int row = r * width;
+        int nRow = n * width;
+        for (int c = c0; c <= c1; c++) {
+            if (blocked(row + c, oneWayIsWall) && (edge || !blocked(nRow + c, oneWayIsWall))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Same test as the rectangle backend's edge-padded overlap against a row-merged platform run.
+     * A run continuing past the touched cells has its edge farther than one tile away,
+     * which always clears the pad, so only the immediate neighbours need checking.
+     */
+    private boolean platformCatches(int r, int c0, int c1, float boxLeft, float boxRight, float edgePad) {
+        int row = r * width;
+        int c = c0;
+        while (c <= c1) {
+            if (!get(oneWay, row + c)) {
+                c++;
+                continue;
+            }
+
+            int s = c;
+            while (c + 1 <= c1 && get(oneWay, row + c + 1)) c++;
+            int e = c;
+
+            boolean openLeft = s > 0 && get(oneWay, row + s - 1);
+            boolean openRight = e + 1 < width && get(oneWay, row + e + 1);
+
+            boolean clearsLeft = openLeft || boxRight > s * tileW + edgePad;
+            boolean clearsRight = openRight || boxLeft < (e + 1) * tileW - edgePad;
+            if (clearsLeft && clearsRight) return true;
+
+            c++;
+        }
+        return false;
+    }
+
+    // First cell whose span [i*size, (i+1)*size) the open range starting at v overlaps
+    private static int firstCell(float v, int size) {
+        return (int) Math.floor(v / size);
+    }
+
+    // Last cell overlapped by a range ending (exclusive) at v
+    private static int lastCell(float v, int size) {
+        return (int) Math.ceil(v / size) - 1;
+    }
+}